@@ -0,0 +1,155 @@
+/*
+ * Predictive aim assist: where to point the gun so a bullet meets an enemy.
+ *
+ * Every turn solve() predicts each freshly scanned enemy forward from its
+ * last scan, either in a straight line or, when the tracker measured a turn
+ * rate, along a circle at constant speed and turn rate, clamped to the
+ * arena. The intercept is a fixed-point iteration on the flight time: aim at
+ * where the enemy will be after t turns, look up how long a bullet needs for
+ * that distance, repeat until t settles. Flight times for the two powers
+ * handleFire uses come from tables built once at class load, so the loop is
+ * a few table lookups and trig calls per enemy, with no allocation.
+ *
+ * For each power the enemy with the shortest flight time (plus the age of
+ * its scan) wins and its gun angle is kept as the suggestion.
+ */
+final class AimAssist {
+
+    static final double[] POWERS = { 1.8, 3.0 }; // regular and high-power shot
+    static final int LOW = 0, HIGH = 1;
+
+    private static final int MAX_DISTANCE = 2048; // units; longer shots are never suggested
+    private static final int MAX_FLIGHT = 120; // turns
+    private static final int ITERATIONS = 8;
+    private static final int MAX_STALENESS = 30; // turns since the scan
+    private static final double CIRCULAR_MIN_RATE = 0.25; // degrees per turn
+    private static final double BOT_RADIUS = 18;
+
+    /** FLIGHT[p][d]: turns a bullet of POWERS[p] needs to cover d units. */
+    private static final int[][] FLIGHT = new int[POWERS.length][MAX_DISTANCE + 1];
+
+    static {
+        for (int p = 0; p < POWERS.length; p++) {
+            double v = bulletSpeed(POWERS[p]);
+            for (int d = 0; d <= MAX_DISTANCE; d++)
+                FLIGHT[p][d] = (int) Math.ceil(d / v);
+        }
+    }
+
+    /** Bullet speed in units per turn for {@code power}. */
+    static double bulletSpeed(double power) {
+        return 20 - 3 * power;
+    }
+
+    // ── best solution per power ────────────────────────────────────────
+    private final int[] target = { -1, -1 };
+    private final double[] angle = new double[POWERS.length];
+    private final int[] flight = new int[POWERS.length];
+    private final boolean[] circular = new boolean[POWERS.length];
+
+    // scratch
+    private final double[] scores = new double[POWERS.length];
+    private double px, py; // last predicted position
+
+    /**
+     * Solves every enemy scanned within the last MAX_STALENESS turns, from
+     * our position ({@code x}, {@code y}) at {@code turn}.
+     */
+    void solve(EnemyTracker en, int turn, double x, double y, double arenaWidth, double arenaHeight) {
+        double[] bestScore = scores;
+        for (int p = 0; p < POWERS.length; p++) {
+            target[p] = -1;
+            bestScore[p] = Double.MAX_VALUE;
+        }
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            int stale = en.staleness(id, turn);
+            if (stale < 0 || stale > MAX_STALENESS)
+                continue;
+            double rate = en.turnRate(id);
+            boolean circ = Math.abs(rate) >= CIRCULAR_MIN_RATE;
+            for (int p = 0; p < POWERS.length; p++) {
+                int t = intercept(p, stale, x, y, en.x(id), en.y(id), en.direction(id), en.speed(id),
+                        circ ? rate : 0, arenaWidth, arenaHeight);
+                if (t < 0)
+                    continue;
+                double score = t + stale;
+                if (score < bestScore[p]) {
+                    bestScore[p] = score;
+                    target[p] = id;
+                    flight[p] = t;
+                    circular[p] = circ;
+                    angle[p] = AngleMath.bearingDeg(py - y, px - x);
+                }
+            }
+        }
+    }
+
+    /** Enemy to shoot at with power {@code p}, or -1 if none qualifies. */
+    int target(int p) {
+        return target[p];
+    }
+
+    /** Absolute gun direction for power {@code p}, degrees in [0,360). */
+    double angle(int p) {
+        return angle[p];
+    }
+
+    /** Bullet flight time in turns for power {@code p}. */
+    int flight(int p) {
+        return flight[p];
+    }
+
+    boolean circular(int p) {
+        return circular[p];
+    }
+
+    // ── solver ─────────────────────────────────────────────────────────
+    /**
+     * Flight time of the intercept, with the aim point left in px/py, or -1
+     * if the enemy is out of range. {@code stale} turns have passed since the
+     * enemy was at (ex, ey).
+     */
+    private int intercept(int p, int stale, double x, double y, double ex, double ey, double heading,
+            double speed, double rate, double w, double h) {
+        int t = flightTurns(p, ex - x, ey - y);
+        for (int k = 0; k < ITERATIONS && t <= MAX_FLIGHT; k++) {
+            predict(stale + t, ex, ey, heading, speed, rate, w, h);
+            int nt = flightTurns(p, px - x, py - y);
+            if (nt == t)
+                return t;
+            t = nt;
+        }
+        if (t > MAX_FLIGHT)
+            return -1;
+        predict(stale + t, ex, ey, heading, speed, rate, w, h);
+        return t;
+    }
+
+    /** Position after {@code n} turns of constant speed and turn rate, clamped to the arena. */
+    private void predict(int n, double ex, double ey, double heading, double speed, double rate, double w,
+            double h) {
+        double qx, qy;
+        if (rate == 0) {
+            qx = ex + speed * AngleMath.cosDeg(heading) * n;
+            qy = ey + speed * AngleMath.sinDeg(heading) * n;
+        } else {
+            double radius = speed / Math.toRadians(rate);
+            double end = heading + rate * n;
+            qx = ex + radius * (AngleMath.sinDeg(end) - AngleMath.sinDeg(heading));
+            qy = ey - radius * (AngleMath.cosDeg(end) - AngleMath.cosDeg(heading));
+        }
+        if (w <= 0 || h <= 0) { // arena size not known yet
+            px = qx;
+            py = qy;
+            return;
+        }
+        px = Math.max(BOT_RADIUS, Math.min(w - BOT_RADIUS, qx));
+        py = Math.max(BOT_RADIUS, Math.min(h - BOT_RADIUS, qy));
+    }
+
+    private static int flightTurns(int p, double dx, double dy) {
+        double d = Math.sqrt(dx * dx + dy * dy);
+        return d > MAX_DISTANCE ? MAX_FLIGHT + 1 : FLIGHT[p][(int) d];
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Several PlayerBots in one JVM, for --bots=<spec>.
+ *
+ * The spec is a comma-separated list of entries, each optionally repeated
+ * with *N:
+ *
+ *   keyboard        a bot with its own HUD window, driven by the keys typed into it
+ *   idle            a headless bot that never presses a key (radar and tracking still run)
+ *   script:<file>   a headless bot driven by a key script (see ScriptedInput)
+ *
+ * e.g. --bots=keyboard,script:weave.txt*3,idle*4 fills a practice server
+ * with eight bots from one process: one heap, one JIT warm-up, and classes
+ * loaded once. Bots are named "PlayerBot 1".."PlayerBot N" in spec order,
+ * and each gets its own copy of the options; files that would collide
+ * (--record, --event-log, --latency-csv, --hud-log) get a "-<n>" suffix
+ * before the extension. --jfr is one recording for the whole JVM; its
+ * events name the bot they came from.
+ *
+ * Each bot connects and waits for its game on a virtual thread where the
+ * JVM has them (Java 21+), otherwise on a platform thread. They are looked
+ * up reflectively because the sources still target Java 11. The bot API
+ * runs the turn loop of each bot on its own thread either way.
+ */
+final class BotPool {
+
+    private static final int KEYBOARD = 0, IDLE = 1, SCRIPT = 2;
+
+    private BotPool() {
+    }
+
+    /** Parses {@code spec} into one option set per bot; throws IllegalArgumentException on a bad spec. */
+    static List<LaunchOptions> plan(LaunchOptions base, String spec) {
+        List<LaunchOptions> bots = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            int count = 1;
+            int star = entry.lastIndexOf('*');
+            if (star >= 0) {
+                try {
+                    count = Integer.parseInt(entry.substring(star + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad bot count in --bots: " + entry);
+                }
+                if (count < 1)
+                    throw new IllegalArgumentException("Bad bot count in --bots: " + entry);
+                entry = entry.substring(0, star);
+            }
+            int kind;
+            String script = null;
+            if (entry.equals("keyboard")) {
+                kind = KEYBOARD;
+            } else if (entry.equals("idle")) {
+                kind = IDLE;
+            } else if (entry.startsWith("script:") && entry.length() > "script:".length()) {
+                kind = SCRIPT;
+                script = entry.substring("script:".length());
+            } else {
+                throw new IllegalArgumentException("Unknown bot in --bots: " + entry);
+            }
+            if (kind == KEYBOARD && base.headless)
+                throw new IllegalArgumentException("Keyboard bots need a display; use idle or script: bots headless.");
+            for (int i = 0; i < count; i++) {
+                int n = bots.size() + 1;
+                LaunchOptions o = base.copy();
+                o.bots = null;
+                o.headless = kind != KEYBOARD;
+                o.scriptFile = script;
+                o.recordFile = suffixed(base.recordFile, n);
+                o.eventLog = suffixed(base.eventLog, n);
+                o.latencyCsv = suffixed(base.latencyCsv, n);
+                o.hudLog = "-".equals(base.hudLog) ? base.hudLog : suffixed(base.hudLog, n);
+                bots.add(o);
+            }
+        }
+        return bots;
+    }
+
+    /** Starts every bot of {@code spec} and waits until all of them have stopped. */
+    static void run(LaunchOptions base, String spec) {
+        List<LaunchOptions> bots = plan(base, spec);
+        List<Thread> threads = new ArrayList<>(bots.size());
+        for (int i = 0; i < bots.size(); i++) {
+            LaunchOptions o = bots.get(i);
+            String name = "PlayerBot " + (i + 1);
+            threads.add(start(name, () -> {
+                try {
+                    new PlayerBot(o, name).playConnection();
+                } catch (RuntimeException e) {
+                    System.err.println(name + " stopped: " + e);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Thread.ofVirtual().name(name).start(task), or a platform thread before Java 21. */
+    static Thread start(String name, Runnable task) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> type = Class.forName("java.lang.Thread$Builder");
+            builder = type.getMethod("name", String.class).invoke(builder, name);
+            return (Thread) type.getMethod("start", Runnable.class).invoke(builder, task);
+        } catch (ReflectiveOperationException e) {
+            Thread t = new Thread(task, name);
+            t.start();
+            return t;
+        }
+    }
+
+    /** "match.rec", 3 -> "match-3.rec"; null stays null. */
+    static String suffixed(String file, int n) {
+        if (file == null)
+            return null;
+        int slash = Math.max(file.lastIndexOf('/'), file.lastIndexOf('\\'));
+        int dot = file.lastIndexOf('.');
+        if (dot <= slash + 1)
+            return file + "-" + n;
+        return file.substring(0, dot) + "-" + n + file.substring(dot);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Settings of one bot that can change while it runs.
+ *
+ * The HUD widgets write them on the EDT and the bot thread reads them every
+ * turn, hence volatile. Each PlayerBot has its own instance, so bots sharing
+ * a JVM do not share settings.
+ */
+final class BotSettings {
+
+    /** Smoothing factor for exponential moving average of enemy angles, 0 < α ≤ 1. */
+    volatile double angleAlpha = 0.15;
+    volatile boolean expAverage = true; // used when kalman is off
+    volatile boolean kalman = true;
+    volatile boolean aimAssist;
+    volatile int radarMode = RadarScheduler.MELEE;
+
+    /** Start-up values from the command line. */
+    static BotSettings from(LaunchOptions options) {
+        BotSettings s = new BotSettings();
+        s.aimAssist = options.aimAssist;
+        s.kalman = !options.noKalman;
+        s.radarMode = options.radarMode;
+        return s;
+    }
+}
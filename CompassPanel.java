@@ -0,0 +1,103 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+/*
+ * Compass view of our own headings and the enemy bearings.
+ *
+ * Drawing is active: the render thread composes each frame with a
+ * CompassRenderer (cached static layer plus dirty-rectangle updates) and
+ * pushes it through the canvas' BufferStrategy itself, so there is no
+ * repaint() round trip through the EDT. When the strategy's back buffer
+ * keeps its contents across show() (blitted buffers, or page flipping with
+ * copied contents), only the changed rectangles are copied into it; otherwise
+ * the whole frame is. paint() on the EDT only re-shows the last composed
+ * frame (e.g. after the window was uncovered), so it never touches bot
+ * state. Both are timed as playerbot.Compass events while the flight
+ * recorder runs.
+ */
+final class CompassPanel extends Canvas {
+    private static final long serialVersionUID = 1L;
+    private final Object renderLock = new Object();
+    private final CompassRenderer renderer = new CompassRenderer(Color.BLACK);
+    private BufferStrategy strategy;
+    private boolean persistentBackBuffer;
+    private int strategyWidth, strategyHeight;
+    private boolean composed; // a frame exists to re-show
+    private int composedTurn, composedEnemies; // of that frame, for the flight recorder
+
+    CompassPanel() {
+        setPreferredSize(new Dimension(300, 300));
+        setBackground(Color.BLACK);
+    }
+
+    @Override
+    public void update(Graphics g) {
+        paint(g); // Avoid default clear flicker
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        synchronized (renderLock) {
+            if (composed && strategy != null) {
+                FlightRecording.Compass jfr = FlightRecording.on ? FlightRecording.Compass.start() : null;
+                present(true);
+                if (jfr != null)
+                    jfr.end(composedTurn, composedEnemies, -1, true);
+            }
+        }
+    }
+
+    /** Composes {@code s} and shows it. Render thread only. */
+    void render(HudSnapshot s, EnemyTracker enemies) {
+        int w = getWidth(), h = getHeight();
+        if (w <= 0 || h <= 0 || !isDisplayable())
+            return;
+
+        synchronized (renderLock) {
+            FlightRecording.Compass jfr = FlightRecording.on ? FlightRecording.Compass.start() : null;
+            boolean resized = w != strategyWidth || h != strategyHeight;
+            if (strategy == null || resized) {
+                createBufferStrategy(2);
+                strategy = getBufferStrategy();
+                BufferCapabilities caps = strategy.getCapabilities();
+                persistentBackBuffer = !caps.isPageFlipping()
+                        || caps.getFlipContents() == BufferCapabilities.FlipContents.COPIED;
+                strategyWidth = w;
+                strategyHeight = h;
+                renderer.invalidate();
+            }
+            composed = renderer.compose(getGraphicsConfiguration(), w, h, s, enemies);
+            composedTurn = s.turn;
+            composedEnemies = enemies.count();
+            if (composed)
+                present(!persistentBackBuffer);
+            if (jfr != null)
+                jfr.end(s.turn, enemies.count(), persistentBackBuffer ? renderer.dirtyRegions() : -1, false);
+        }
+    }
+
+    /** Composes a frame and copies it into {@code g2}, for offscreen use (benchmarks); nothing is shown. */
+    void draw(Graphics2D g2, int w, int h, HudSnapshot s, EnemyTracker enemies) {
+        if (renderer.compose(g2.getDeviceConfiguration(), w, h, s, enemies))
+            renderer.copyTo(g2, false);
+    }
+
+    /** Copies the frame into the back buffer and shows it, retrying while buffers are lost. */
+    private void present(boolean all) {
+        boolean full = all;
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    if (!renderer.copyTo(g, full))
+                        return; // frame layer lost: the next render recomposes everything
+                } finally {
+                    g.dispose();
+                }
+                full = true; // anything after a restore needs the whole frame
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
@@ -0,0 +1,446 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/*
+ * Layered, incremental renderer behind CompassPanel.
+ *
+ * The ring, degree labels and energy bar outlines never change, so they are
+ * drawn once with antialiasing into a static layer (a VolatileImage where
+ * the pipeline supports it) and only rebuilt on resize or when the layer's
+ * contents are lost. Frames are composed into a persistent frame layer:
+ * every dot and bar fill remembers where it was last drawn, and only items
+ * that moved, changed colour, appeared or vanished mark their old and new
+ * rectangles dirty. Each dirty rectangle is restored from the static layer
+ * and every item touching it is redrawn, clipped to it and in the usual
+ * z-order, so the result is pixel-identical to a full redraw. copyTo() then
+ * hands just those rectangles (or the whole frame) to the screen.
+ *
+ * Render thread only; CompassPanel serialises access with its own lock.
+ */
+final class CompassRenderer {
+
+    private static final int HALF = 6; // dot radius
+    private static final int PAD = 3; // antialiasing margin around each item (hollow rings are 1px larger)
+    private static final int STALE_TURNS = 30 * 2;
+    private static final int MAX_DIRTY = 32; // beyond this the frame is redrawn in one piece
+    private static final int BAR_HEIGHT = 12, BAR_Y = 10;
+    private static final double WAVE_HORIZON = 40; // turns to impact at which a wave sits on the ring
+    private static final int WAVE_INNER = 16; // radius of a wave about to hit, clear of the centre
+
+    private final Color background;
+
+    // ── layers ─────────────────────────────────────────────────────────
+    private int width, height;
+    private Image staticLayer;
+    private Image frameLayer;
+    private Graphics2D frameGraphics;
+    private FontMetrics metrics;
+    private boolean fullRedraw = true;
+
+    // ── layout (from width/height) ─────────────────────────────────────
+    private int cx, cy, r, barWidth;
+
+    // ── items, in drawing order: heading, gun, aim, waves, enemies by id, bars
+    private final Item heading = new Item(null);
+    private final Item gun = new Item(null);
+    private final Item aim = new Item(null, true);
+    private final Item[] waves = new Item[WaveTracker.THREATS]; // nearest first
+    private Item[] enemies = new Item[16]; // by bot id
+    private double[] enemyAngles = new double[16]; // this frame's bearings, in tracker order
+    private int[] enemyX = new int[16], enemyY = new int[16];
+    private int enemyBarFill = -1, myBarFill = -1;
+    private int newEnemyBarFill, newMyBarFill;
+
+    // ── dirty rectangles of the last frame (x, y, w, h) ────────────────
+    private int[] dirty = new int[MAX_DIRTY * 4];
+    private int dirtyCount;
+    private boolean wholeFrameDirty;
+
+    CompassRenderer(Color background) {
+        this.background = background;
+        for (int k = 0; k < waves.length; k++)
+            waves[k] = new Item(null, true);
+    }
+
+    /** Forces the next frame to be redrawn and copied in full. */
+    void invalidate() {
+        fullRedraw = true;
+    }
+
+    // ── composing ──────────────────────────────────────────────────────
+    /**
+     * Brings the frame layer up to date with {@code s} and {@code en}.
+     * Returns false if no layer could be created (e.g. zero size).
+     */
+    boolean compose(GraphicsConfiguration gc, int w, int h, HudSnapshot s, EnemyTracker en) {
+        if (!ensureLayers(gc, w, h))
+            return false;
+
+        place(heading, s.heading, r - 50, Color.GREEN, true);
+        place(gun, s.gunHeading, r - 30, Color.BLUE, true);
+        place(aim, s.aimAngle, r - 30, Color.MAGENTA, s.aimOn && s.aimTarget >= 0);
+        // a ring towards each wave's origin, closing in on the centre as it closes in on us
+        for (int k = 0; k < waves.length; k++) {
+            boolean shown = k < s.threats;
+            double near = shown ? Math.min(1, s.threatTurns[k] / WAVE_HORIZON) : 0;
+            place(waves[k], s.threatBearing[k], WAVE_INNER + (int) ((r - 10 - WAVE_INNER) * near), Color.ORANGE,
+                    shown);
+        }
+
+        for (Item it : enemies)
+            if (it != null)
+                it.nShown = false;
+        int n = en.count();
+        if (n > enemyAngles.length) {
+            enemyAngles = new double[Math.max(n, enemyAngles.length * 2)];
+            enemyX = new int[enemyAngles.length];
+            enemyY = new int[enemyAngles.length];
+        }
+        for (int i = 0; i < n; i++)
+            enemyAngles[i] = en.angle(en.idAt(i));
+        AngleMath.toScreen(enemyAngles, n, cx, cy, r - 10, enemyX, enemyY);
+        int recent = -1;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int id = en.idAt(i);
+            int since = en.staleness(id, s.turn);
+            update(enemy(id), enemyX[i], enemyY[i], since > STALE_TURNS ? Color.YELLOW : Color.RED, true);
+            if (since < best) {
+                best = since;
+                recent = id;
+            }
+        }
+        double enemyEnergy = recent >= 0 ? en.energy(recent) : 0.0;
+        newEnemyBarFill = (int) ((barWidth - 1) * Math.max(0, Math.min(1, enemyEnergy / 100.0)));
+        newMyBarFill = (int) ((barWidth - 1) * Math.max(0, Math.min(1, s.energy / 100.0)));
+
+        Graphics2D g = frameGraphics;
+        if (fullRedraw) {
+            g.drawImage(staticLayer, 0, 0, null);
+            drawItems(g, 0, 0, w, h);
+            wholeFrameDirty = true;
+            fullRedraw = false;
+        } else {
+            dirtyCount = 0;
+            wholeFrameDirty = false;
+            collectDirty(heading);
+            collectDirty(gun);
+            collectDirty(aim);
+            for (Item it : waves)
+                collectDirty(it);
+            for (Item it : enemies)
+                if (it != null)
+                    collectDirty(it);
+            if (newEnemyBarFill != enemyBarFill)
+                addDirty(21, BAR_Y + 1, barWidth - 1, BAR_HEIGHT - 1);
+            if (newMyBarFill != myBarFill)
+                addDirty(w - barWidth - 19, BAR_Y + 1, barWidth - 1, BAR_HEIGHT - 1);
+
+            if (wholeFrameDirty) {
+                g.drawImage(staticLayer, 0, 0, null);
+                drawItems(g, 0, 0, w, h);
+            } else {
+                for (int i = 0; i < dirtyCount; i++) {
+                    int x = dirty[i * 4], y = dirty[i * 4 + 1], dw = dirty[i * 4 + 2], dh = dirty[i * 4 + 3];
+                    g.setClip(x, y, dw, dh);
+                    g.drawImage(staticLayer, x, y, x + dw, y + dh, x, y, x + dw, y + dh, null);
+                    drawItems(g, x, y, dw, dh);
+                }
+                g.setClip(null);
+            }
+        }
+        commit(heading);
+        commit(gun);
+        commit(aim);
+        for (Item it : waves)
+            commit(it);
+        for (Item it : enemies)
+            if (it != null)
+                commit(it);
+        enemyBarFill = newEnemyBarFill;
+        myBarFill = newMyBarFill;
+        return true;
+    }
+
+    /**
+     * Copies the frame to {@code g}: only the rectangles that changed in the
+     * last compose, or everything when {@code all} is set (the target does
+     * not hold the previous frame) or the whole frame changed. Returns false
+     * if the frame layer lost its contents; the next compose redraws it.
+     */
+    boolean copyTo(Graphics g, boolean all) {
+        if (frameLayer instanceof VolatileImage && ((VolatileImage) frameLayer).contentsLost()) {
+            fullRedraw = true;
+            return false;
+        }
+        if (all || wholeFrameDirty) {
+            g.drawImage(frameLayer, 0, 0, null);
+        } else {
+            for (int i = 0; i < dirtyCount; i++) {
+                int x = dirty[i * 4], y = dirty[i * 4 + 1], dw = dirty[i * 4 + 2], dh = dirty[i * 4 + 3];
+                g.drawImage(frameLayer, x, y, x + dw, y + dh, x, y, x + dw, y + dh, null);
+            }
+        }
+        return true;
+    }
+
+    /** Rectangles copied by the last incremental copyTo(), or -1 for the whole frame. */
+    int dirtyRegions() {
+        return wholeFrameDirty ? -1 : dirtyCount;
+    }
+
+    // ── items ──────────────────────────────────────────────────────────
+    private Item enemy(int id) {
+        if (id >= enemies.length)
+            enemies = java.util.Arrays.copyOf(enemies, Math.max(id + 1, enemies.length * 2));
+        Item it = enemies[id];
+        if (it == null)
+            it = enemies[id] = new Item(Integer.toString(id));
+        return it;
+    }
+
+    /** Puts the item at {@code angDeg} on a circle of {@code radius}, like the former drawDot. */
+    private void place(Item it, double angDeg, int radius, Color color, boolean shown) {
+        int x = cx + (int) (radius * AngleMath.cosDeg(angDeg)); // 0° = right
+        int y = cy - (int) (radius * AngleMath.sinDeg(angDeg)); // 90° = up
+        update(it, x, y, color, shown);
+    }
+
+    /** Sets the item's position for this frame. */
+    private void update(Item it, int x, int y, Color color, boolean shown) {
+        it.nShown = shown;
+        it.nx = x;
+        it.ny = y;
+        it.nColor = color;
+        it.nBounds[0] = x - HALF - PAD;
+        it.nBounds[1] = Math.min(y - HALF, it.label != null ? y - metrics.getAscent() : y) - PAD;
+        it.nBounds[2] = (it.label != null ? Math.max(HALF, 8 + it.labelWidth(metrics)) : HALF) + HALF + 2 * PAD;
+        it.nBounds[3] = Math.max(y + HALF, it.label != null ? y + metrics.getDescent() : y) + PAD
+                - it.nBounds[1];
+    }
+
+    private void collectDirty(Item it) {
+        if (it.nShown == it.shown && (!it.shown || it.nx == it.x && it.ny == it.y && it.nColor == it.color))
+            return;
+        if (it.shown)
+            addDirty(it.bounds[0], it.bounds[1], it.bounds[2], it.bounds[3]);
+        if (it.nShown)
+            addDirty(it.nBounds[0], it.nBounds[1], it.nBounds[2], it.nBounds[3]);
+    }
+
+    private static void commit(Item it) {
+        it.shown = it.nShown;
+        it.x = it.nx;
+        it.y = it.ny;
+        it.color = it.nColor;
+        System.arraycopy(it.nBounds, 0, it.bounds, 0, 4);
+    }
+
+    /** Draws every visible item that touches the given rectangle, in z-order. */
+    private void drawItems(Graphics2D g, int x, int y, int w, int h) {
+        drawItem(g, heading, x, y, w, h);
+        drawItem(g, gun, x, y, w, h);
+        drawItem(g, aim, x, y, w, h);
+        for (Item it : waves)
+            drawItem(g, it, x, y, w, h);
+        for (Item it : enemies)
+            if (it != null)
+                drawItem(g, it, x, y, w, h);
+
+        // Energy bars: enemy (most recent) on the left, ours on the right
+        if (intersects(21, BAR_Y + 1, barWidth - 1, BAR_HEIGHT - 1, x, y, w, h)) {
+            g.setColor(Color.RED);
+            g.fillRect(21, BAR_Y + 1, newEnemyBarFill, BAR_HEIGHT - 1);
+        }
+        int rightX = width - barWidth - 20;
+        if (intersects(rightX + 1, BAR_Y + 1, barWidth - 1, BAR_HEIGHT - 1, x, y, w, h)) {
+            g.setColor(Color.GREEN);
+            g.fillRect(rightX + 1, BAR_Y + 1, newMyBarFill, BAR_HEIGHT - 1);
+        }
+    }
+
+    private static void drawItem(Graphics2D g, Item it, int x, int y, int w, int h) {
+        int[] b = it.nBounds;
+        if (!it.nShown || !intersects(b[0], b[1], b[2], b[3], x, y, w, h))
+            return;
+        g.setColor(it.nColor);
+        if (it.hollow)
+            g.drawOval(it.nx - HALF - 1, it.ny - HALF - 1, 2 * HALF + 2, 2 * HALF + 2);
+        else
+            g.fillOval(it.nx - HALF, it.ny - HALF, 2 * HALF, 2 * HALF);
+        if (it.label != null) {
+            g.setColor(Color.WHITE);
+            g.drawString(it.label, it.nx + 8, it.ny);
+        }
+    }
+
+    // ── dirty rectangles ───────────────────────────────────────────────
+    /** Adds a rectangle, merging it into any it overlaps; too many collapse to the whole frame. */
+    private void addDirty(int x, int y, int w, int h) {
+        if (wholeFrameDirty)
+            return;
+        // clamp to the frame
+        int x2 = Math.min(width, x + w), y2 = Math.min(height, y + h);
+        x = Math.max(0, x);
+        y = Math.max(0, y);
+        if (x2 <= x || y2 <= y)
+            return;
+        w = x2 - x;
+        h = y2 - y;
+
+        for (int i = 0; i < dirtyCount; i++) {
+            int o = i * 4;
+            if (intersects(x, y, w, h, dirty[o], dirty[o + 1], dirty[o + 2], dirty[o + 3])) {
+                int nx = Math.min(x, dirty[o]), ny = Math.min(y, dirty[o + 1]);
+                int nx2 = Math.max(x + w, dirty[o] + dirty[o + 2]);
+                int ny2 = Math.max(y + h, dirty[o + 1] + dirty[o + 3]);
+                // remove i and re-add the union, which may now overlap others
+                dirtyCount--;
+                System.arraycopy(dirty, (dirtyCount) * 4, dirty, o, 4);
+                addDirty(nx, ny, nx2 - nx, ny2 - ny);
+                return;
+            }
+        }
+        if (dirtyCount == MAX_DIRTY) {
+            wholeFrameDirty = true;
+            return;
+        }
+        int o = dirtyCount++ * 4;
+        dirty[o] = x;
+        dirty[o + 1] = y;
+        dirty[o + 2] = w;
+        dirty[o + 3] = h;
+    }
+
+    private static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
+    }
+
+    // ── layers ─────────────────────────────────────────────────────────
+    /** (Re)creates the layers on resize or loss; rebuilding the static layer forces a full redraw. */
+    private boolean ensureLayers(GraphicsConfiguration gc, int w, int h) {
+        if (w <= 0 || h <= 0)
+            return false;
+        if (w != width || h != height || staticLayer == null) {
+            release();
+            width = w;
+            height = h;
+            layout();
+            staticLayer = createLayer(gc, w, h);
+            frameLayer = createLayer(gc, w, h);
+            frameGraphics = (Graphics2D) frameLayer.getGraphics();
+            frameGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            metrics = frameGraphics.getFontMetrics();
+            drawStatic();
+            fullRedraw = true;
+        }
+        if (staticLayer instanceof VolatileImage) {
+            int st = ((VolatileImage) staticLayer).validate(gc);
+            if (st == VolatileImage.IMAGE_INCOMPATIBLE) {
+                width = 0; // recreate both for the new configuration
+                return ensureLayers(gc, w, h);
+            }
+            if (st == VolatileImage.IMAGE_RESTORED) {
+                drawStatic();
+                fullRedraw = true;
+            }
+        }
+        if (frameLayer instanceof VolatileImage) {
+            int st = ((VolatileImage) frameLayer).validate(gc);
+            if (st == VolatileImage.IMAGE_INCOMPATIBLE) {
+                width = 0;
+                return ensureLayers(gc, w, h);
+            }
+            if (st == VolatileImage.IMAGE_RESTORED)
+                fullRedraw = true;
+        }
+        return true;
+    }
+
+    private void layout() {
+        int size = Math.min(width, height) - 40;
+        r = size / 2;
+        cx = width / 2;
+        cy = height / 2;
+        barWidth = (width / 2) - 40;
+    }
+
+    /** Background, ring, degree labels and bar outlines. */
+    private void drawStatic() {
+        Graphics2D g = (Graphics2D) staticLayer.getGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+
+            int size = 2 * r;
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawOval(cx - r, cy - r, size, size);
+            g.drawString("0°", cx + r + 5, cy + 5);
+            g.drawString("90°", cx - 10, cy - r - 5);
+            g.drawString("180°", cx - r - 25, cy + 15);
+            g.drawString("270°", cx - 15, cy + r + 15);
+
+            g.setColor(Color.DARK_GRAY);
+            g.drawRect(20, BAR_Y, barWidth, BAR_HEIGHT);
+            g.drawRect(width - barWidth - 20, BAR_Y, barWidth, BAR_HEIGHT);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static Image createLayer(GraphicsConfiguration gc, int w, int h) {
+        if (gc != null) {
+            try {
+                return gc.createCompatibleVolatileImage(w, h);
+            } catch (RuntimeException e) {
+                // no accelerated surface for this configuration: use a plain image
+            }
+        }
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private void release() {
+        if (frameGraphics != null)
+            frameGraphics.dispose();
+        if (staticLayer instanceof VolatileImage)
+            ((VolatileImage) staticLayer).flush();
+        if (frameLayer instanceof VolatileImage)
+            ((VolatileImage) frameLayer).flush();
+        frameGraphics = null;
+        staticLayer = frameLayer = null;
+    }
+
+    /** One dot (with optional label): where it was last drawn and where it goes this frame. */
+    private static final class Item {
+        final String label;
+        final boolean hollow; // ring around the spot instead of a filled dot
+        private int labelWidth = -1;
+
+        boolean shown;
+        int x, y;
+        Color color;
+        final int[] bounds = new int[4];
+
+        boolean nShown;
+        int nx, ny;
+        Color nColor;
+        final int[] nBounds = new int[4];
+
+        Item(String label) {
+            this(label, false);
+        }
+
+        Item(String label, boolean hollow) {
+            this.label = label;
+            this.hollow = hollow;
+        }
+
+        int labelWidth(FontMetrics fm) {
+            if (labelWidth < 0)
+                labelWidth = fm.stringWidth(label);
+            return labelWidth;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Dense enemy tracker indexed by bot id.
+ *
+ * Every tracked quantity lives in its own primitive array (struct of
+ * arrays) so a scan is a handful of array stores and nothing is boxed or
+ * retained from the ScannedBotEvent. Staleness is derived from the turn of
+ * the last scan, so nothing has to be aged per turn. The one per-turn sweep
+ * is track(), which refreshes every enemy's KalmanBank estimate (position,
+ * confidence and, with Kalman tracking on, the bearing from where we stand
+ * now) with a few multiplications per enemy.
+ *
+ * The bot thread is the only writer and wraps every update in a SeqLock
+ * window. The render thread takes a consistent copy with readInto(), into an
+ * EnemyTracker of its own, and draws from that.
+ */
+final class EnemyTracker {
+
+    /** Last-scan turn of an enemy that has not been seen in the current round. */
+    static final int NEVER = Integer.MIN_VALUE / 2;
+
+    private static final int MAX_READ_ATTEMPTS = 8;
+    private static final int TURN_RATE_WINDOW = 8; // turns between scans
+    private static final double MAX_TURN_RATE = 10; // degrees per turn, the engine's limit
+
+    private final SeqLock lock = new SeqLock();
+
+    // ids in ascending order; the first activeCount entries are valid
+    private int[] active = new int[8];
+    private int activeCount;
+
+    // per-id rows
+    private boolean[] known = new boolean[16];
+    private int[] lastScanTurn = new int[16];
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private double[] energy = new double[16];
+    private double[] direction = new double[16];
+    private double[] speed = new double[16];
+    private double[] sx = new double[16]; // smoothed bearing unit vector
+    private double[] sy = new double[16];
+    private double[] angle = new double[16]; // smoothed bearing in degrees, [0,360)
+    private double[] turnRate = new double[16]; // degrees per turn between the last two scans
+    private double[] estX = new double[16]; // KalmanBank estimate for the current turn
+    private double[] estY = new double[16];
+    private double[] confidence = new double[16]; // 0 = no estimate this round
+
+    // ── bot thread: updates ────────────────────────────────────────────
+    /**
+     * Records a scan of bot {@code id}. {@code rawBearing} is folded into the
+     * smoothed bearing with an exponential moving average over unit vectors
+     * when {@code average} is set, otherwise it replaces it.
+     */
+    void scan(int id, int turn, double ex, double ey, double eEnergy, double eDirection, double eSpeed,
+            double rawBearing, boolean average, double alpha) {
+        if (id < 0)
+            return;
+        lock.beginWrite();
+        if (id >= known.length)
+            grow(Math.max(id + 1, known.length * 2));
+        boolean first = !known[id];
+        if (first)
+            insert(id);
+
+        // Turn rate from the previous scan, if it was recent enough to mean anything
+        int dt = turn - lastScanTurn[id];
+        if (!first && dt > 0 && dt <= TURN_RATE_WINDOW) {
+            double d = eDirection - direction[id];
+            d = AngleMath.normalizeRelative(d);
+            turnRate[id] = Math.max(-MAX_TURN_RATE, Math.min(MAX_TURN_RATE, d / dt));
+        } else {
+            turnRate[id] = 0;
+        }
+
+        x[id] = ex;
+        y[id] = ey;
+        energy[id] = eEnergy;
+        direction[id] = eDirection;
+        speed[id] = eSpeed;
+        lastScanTurn[id] = turn;
+
+        // Convert bearing to unit vector (cos θ, sin θ)
+        double ux = AngleMath.cosDeg(rawBearing);
+        double uy = AngleMath.sinDeg(rawBearing);
+
+        if (average && !first) {
+            // Exponential moving average for circular data
+            sx[id] = (1 - alpha) * sx[id] + alpha * ux;
+            sy[id] = (1 - alpha) * sy[id] + alpha * uy;
+            // Derive smoothed angle from averaged vector
+            angle[id] = AngleMath.bearingDeg(sy[id], sx[id]); // keep in [0,360)
+        } else {
+            // First observation, or no averaging - just use last scanned bearing
+            sx[id] = ux;
+            sy[id] = uy;
+            angle[id] = AngleMath.normalizeAbsolute(rawBearing);
+        }
+        lock.endWrite();
+    }
+
+    /**
+     * Refreshes every enemy's estimate from {@code filters} for {@code turn},
+     * as seen from (ox, oy). With {@code bearing} set the bearing becomes the
+     * direction to the estimate, so it follows enemies between scans;
+     * otherwise it is left to scan().
+     */
+    void track(KalmanBank filters, int round, int turn, double ox, double oy, double arenaWidth,
+            double arenaHeight, boolean bearing) {
+        lock.beginWrite();
+        for (int i = 0; i < activeCount; i++) {
+            int id = active[i];
+            if (lastScanTurn[id] == NEVER || !filters.predict(id, round, turn, arenaWidth, arenaHeight)) {
+                confidence[id] = 0;
+                continue;
+            }
+            estX[id] = filters.x();
+            estY[id] = filters.y();
+            confidence[id] = filters.confidence();
+            double dx = estX[id] - ox, dy = estY[id] - oy;
+            double d = Math.sqrt(dx * dx + dy * dy);
+            if (bearing && d > 0) {
+                angle[id] = AngleMath.bearingDeg(dy, dx);
+                sx[id] = dx / d; // lets the EMA carry on from here if it is switched back on
+                sy[id] = dy / d;
+            }
+        }
+        lock.endWrite();
+    }
+
+    /**
+     * Marks every enemy as not yet seen this round; turn numbers restart at
+     * each round, so last round's scan turns would otherwise look fresh.
+     */
+    void newRound() {
+        lock.beginWrite();
+        for (int i = 0; i < activeCount; i++)
+            lastScanTurn[active[i]] = NEVER;
+        lock.endWrite();
+    }
+
+    /** Marks {@code id} as not seen this round, e.g. because it died. */
+    void died(int id) {
+        if (!isTracked(id))
+            return;
+        lock.beginWrite();
+        lastScanTurn[id] = NEVER;
+        lock.endWrite();
+    }
+
+    /** Forgets every enemy, e.g. when a new game starts. */
+    void clear() {
+        lock.beginWrite();
+        for (int i = 0; i < activeCount; i++)
+            known[active[i]] = false;
+        activeCount = 0;
+        lock.endWrite();
+    }
+
+    // ── reads (owning thread, or a copy made by readInto) ─────────────
+    int count() {
+        return activeCount;
+    }
+
+    /** Id of the {@code i}-th tracked enemy, in ascending id order. */
+    int idAt(int i) {
+        return active[i];
+    }
+
+    boolean isTracked(int id) {
+        return id >= 0 && id < known.length && known[id];
+    }
+
+    /** Turns since the last scan of {@code id}, as seen at {@code turn}. */
+    int staleness(int id, int turn) {
+        return turn - lastScanTurn[id];
+    }
+
+    int lastScanTurn(int id) {
+        return lastScanTurn[id];
+    }
+
+    double x(int id) {
+        return x[id];
+    }
+
+    double y(int id) {
+        return y[id];
+    }
+
+    double energy(int id) {
+        return energy[id];
+    }
+
+    double direction(int id) {
+        return direction[id];
+    }
+
+    double speed(int id) {
+        return speed[id];
+    }
+
+    /** Degrees per turn (counter-clockwise positive) measured between the last two scans, or 0. */
+    double turnRate(int id) {
+        return turnRate[id];
+    }
+
+    /** Estimated x for the current turn (see track()). */
+    double estimatedX(int id) {
+        return estX[id];
+    }
+
+    double estimatedY(int id) {
+        return estY[id];
+    }
+
+    /** Confidence of the estimate, in [0,1]; 0 when there is none. */
+    double confidence(int id) {
+        return confidence[id];
+    }
+
+    double smoothedX(int id) {
+        return sx[id];
+    }
+
+    double smoothedY(int id) {
+        return sy[id];
+    }
+
+    /** Smoothed bearing in degrees, [0,360). */
+    double angle(int id) {
+        return angle[id];
+    }
+
+    // ── render thread: consistent copy ─────────────────────────────────
+    /**
+     * Copies the tracked rows into {@code dst} under the seqlock. Only rows of
+     * tracked enemies are copied, so the cost follows the number of enemies,
+     * not the largest id. Returns false if the writer kept racing the copy;
+     * {@code dst} is then torn and must not be drawn. Every copy is complete,
+     * so the next successful one repairs it.
+     */
+    boolean readInto(EnemyTracker dst) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long s = lock.readBegin();
+            if (s < 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (dst.copyRows(this) && lock.readValidate(s))
+                return true;
+        }
+        return false;
+    }
+
+    /** Plain copy; may observe a torn source, which readInto() then reports. */
+    private boolean copyRows(EnemyTracker src) {
+        int[] srcActive = src.active;
+        int n = src.activeCount;
+        if (n < 0 || n > srcActive.length)
+            return false;
+        for (int i = 0; i < activeCount; i++)
+            known[active[i]] = false;
+        if (n > active.length)
+            active = new int[srcActive.length];
+        activeCount = 0;
+
+        int len = Math.min(src.known.length, Math.min(src.lastScanTurn.length, Math.min(src.x.length,
+                Math.min(src.y.length, Math.min(src.energy.length, Math.min(src.direction.length,
+                        Math.min(src.speed.length, Math.min(src.sx.length, Math.min(src.sy.length,
+                                Math.min(src.angle.length, Math.min(src.turnRate.length, Math.min(src.estX.length,
+                                        Math.min(src.estY.length, src.confidence.length)))))))))))));
+        if (len > known.length)
+            grow(len);
+        for (int i = 0; i < n; i++) {
+            int id = srcActive[i];
+            if (id < 0 || id >= len)
+                return false;
+            active[i] = id;
+            known[id] = true;
+            lastScanTurn[id] = src.lastScanTurn[id];
+            x[id] = src.x[id];
+            y[id] = src.y[id];
+            energy[id] = src.energy[id];
+            direction[id] = src.direction[id];
+            speed[id] = src.speed[id];
+            sx[id] = src.sx[id];
+            sy[id] = src.sy[id];
+            angle[id] = src.angle[id];
+            turnRate[id] = src.turnRate[id];
+            estX[id] = src.estX[id];
+            estY[id] = src.estY[id];
+            confidence[id] = src.confidence[id];
+            activeCount = i + 1;
+        }
+        return true;
+    }
+
+    // ── storage ────────────────────────────────────────────────────────
+    private void insert(int id) {
+        known[id] = true;
+        if (activeCount == active.length)
+            active = java.util.Arrays.copyOf(active, activeCount * 2);
+        int i = activeCount++;
+        while (i > 0 && active[i - 1] > id) {
+            active[i] = active[i - 1];
+            i--;
+        }
+        active[i] = id;
+    }
+
+    private void grow(int cap) {
+        known = java.util.Arrays.copyOf(known, cap);
+        lastScanTurn = java.util.Arrays.copyOf(lastScanTurn, cap);
+        x = java.util.Arrays.copyOf(x, cap);
+        y = java.util.Arrays.copyOf(y, cap);
+        energy = java.util.Arrays.copyOf(energy, cap);
+        direction = java.util.Arrays.copyOf(direction, cap);
+        speed = java.util.Arrays.copyOf(speed, cap);
+        sx = java.util.Arrays.copyOf(sx, cap);
+        sy = java.util.Arrays.copyOf(sy, cap);
+        angle = java.util.Arrays.copyOf(angle, cap);
+        turnRate = java.util.Arrays.copyOf(turnRate, cap);
+        estX = java.util.Arrays.copyOf(estX, cap);
+        estY = java.util.Arrays.copyOf(estY, cap);
+        confidence = java.util.Arrays.copyOf(confidence, cap);
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Appends the whole event stream of an EventRing to a text file
+ * (--event-log), one line per event:
+ *
+ *   r<round> t<turn> <type> <message>
+ *
+ * A daemon thread follows the ring every FLUSH_MILLIS, formats what was
+ * added since the last pass and writes it out, so the bot thread never
+ * formats or touches the disk. The ring also wakes the thread as soon as it
+ * is half full. It holds thousands of events, far more than a bot produces
+ * in one pass; should the writer ever fall that far behind, the overwritten
+ * events are counted and noted in the file instead of being written torn.
+ *
+ * A resident bot clears the ring at every game start but keeps the log, so
+ * it calls catchUp() first; records a clear still took from under the
+ * writer are noted the same way.
+ */
+final class EventLog {
+
+    private static final long FLUSH_MILLIS = 50;
+    private static final long CATCH_UP_MILLIS = 500;
+
+    private final EventRing ring;
+    private final Writer out;
+    private final Thread thread;
+    private final HudText.CharBuf line = new HudText.CharBuf(160);
+    private long next; // next sequence number to write
+    private int clears;
+    private long cleared; // ring.cleared() as of clears
+    private volatile boolean closed;
+
+    /** Opens (appends to) {@code file} and starts following {@code ring}. */
+    EventLog(EventRing ring, Path file) throws IOException {
+        this.ring = ring;
+        out = new OutputStreamWriter(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), StandardCharsets.UTF_8);
+        clears = ring.clears();
+        cleared = ring.cleared();
+        thread = new Thread(this::loop, "PlayerBot event log");
+        thread.setDaemon(true);
+        ring.follow(thread);
+        thread.start();
+    }
+
+    /** Writes what is left and closes the file. Idempotent. */
+    void close() {
+        if (closed)
+            return;
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Waits, at most CATCH_UP_MILLIS, until every record in the ring is in the file; e.g. before clearing it. */
+    void catchUp() {
+        long end = ring.written();
+        long deadline = System.nanoTime() + CATCH_UP_MILLIS * 1_000_000;
+        while (ring.followed() < end && thread.isAlive() && System.nanoTime() - deadline < 0) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private void loop() {
+        try {
+            while (true) {
+                LockSupport.parkNanos(this, FLUSH_MILLIS * 1_000_000);
+                boolean last = closed; // one final pass after close()
+                drain();
+                out.flush();
+                if (last)
+                    break;
+            }
+        } catch (IOException e) {
+            System.err.println("Event log stopped: " + e.getMessage());
+        } finally {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // already reported, or nothing left to report
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        int c = ring.clears();
+        if (c != clears) { // restarted underneath us, maybe more than once
+            long dropped;
+            do {
+                c = ring.clears();
+                dropped = ring.cleared();
+            } while (ring.clears() != c);
+            if (dropped - cleared > next)
+                lost(dropped - cleared - next, "cleared");
+            clears = c;
+            cleared = dropped;
+            next = 0;
+        }
+        long end = ring.written();
+        long oldest = ring.oldest();
+        if (next < oldest) {
+            lost(oldest - next, "overwritten");
+            next = oldest;
+        }
+        for (; next < end; next++) {
+            HudText.CharBuf b = line;
+            b.len = 0;
+            b.append('r');
+            HudText.appendLong(b, ring.round(next));
+            b.append(" t");
+            HudText.appendLong(b, ring.turn(next));
+            b.append(' ');
+            int type = ring.type(next);
+            b.append(type >= 0 && type < EventRing.TYPES ? EventRing.TYPE_NAMES[type] : "?").append(' ');
+            ring.format(next, b);
+            b.append('\n');
+            if (!ring.stillValid(next)) {
+                long oldestNow = ring.oldest();
+                lost(oldestNow - next, "overwritten");
+                next = oldestNow - 1;
+                continue;
+            }
+            out.write(b.chars, 0, b.len);
+        }
+        ring.followed(next);
+    }
+
+    private void lost(long n, String how) throws IOException {
+        out.write("[event log: " + n + " events " + how + " before they were written]\n");
+    }
+}
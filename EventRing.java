@@ -0,0 +1,263 @@
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Fixed-capacity ring of typed game events.
+ *
+ * A record is a type, the round and turn it happened in, one bot id and two
+ * doubles, stored in parallel primitive arrays, so the API callbacks log an
+ * event with a few array stores and no allocation. Nothing is formatted
+ * until someone looks: the HUD formats the newest few when it redraws, and
+ * EventLog formats all of them on its own thread for the file. Every type
+ * also has a running count.
+ *
+ * Single writer. Records carry a sequence number; once a record is
+ * published its slot stays valid until capacity more records have been
+ * written. Readers on other threads read a slot and then check with
+ * stillValid() that the writer had not started to overwrite it, the same
+ * read-then-validate pattern as SeqLock. A follower that must see every
+ * record (EventLog) is unparked as soon as it falls half a ring behind,
+ * so it does not depend on its polling interval to keep up. The HUD
+ * snapshot keeps a small ring of its own and copies the newest records
+ * into it with copyFrom().
+ */
+final class EventRing {
+
+    // ── event types ────────────────────────────────────────────────────
+    static final int ROUND_STARTED = 0, HIT_WALL = 1, HIT_BY_BULLET = 2, HIT_BOT = 3, BULLET_HIT = 4,
+            BULLET_MISSED = 5, BULLET_HIT_BULLET = 6, BOT_DEATH = 7, DEATH = 8, WON_ROUND = 9,
+            SKIPPED_TURN = 10, FIRED = 11;
+    static final int TYPES = 12;
+    static final String[] TYPE_NAMES = { "round", "wall", "hit-by-bullet", "hit-bot", "bullet-hit",
+            "bullet-missed", "bullet-hit-bullet", "bot-death", "death", "won-round", "skipped-turn", "fired" };
+
+    private final int mask;
+    private final byte[] type;
+    private final int[] round, turn, id;
+    private final double[] a, b;
+    private final long[] counts = new long[TYPES];
+    private volatile long written; // sequence of the next record
+    private volatile int clears; // bumped by clear(), so readers notice a restart
+    private volatile long cleared; // records dropped by every clear() so far
+    private volatile Thread follower; // EventLog thread, woken early when it falls half a ring behind
+    private volatile long followed; // next sequence the follower will read
+
+    /** Holds the newest {@code capacity} records, rounded up to a power of two. */
+    EventRing(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = cap - 1;
+        type = new byte[cap];
+        round = new int[cap];
+        turn = new int[cap];
+        id = new int[cap];
+        a = new double[cap];
+        b = new double[cap];
+    }
+
+    // ── writer ─────────────────────────────────────────────────────────
+    /**
+     * Appends one event. {@code id} is the other bot involved (-1 for none);
+     * {@code a} and {@code b} are the type's payload, see format().
+     */
+    void add(int type, int round, int turn, int id, double a, double b) {
+        long seq = written;
+        int i = (int) seq & mask;
+        this.type[i] = (byte) type;
+        this.round[i] = round;
+        this.turn[i] = turn;
+        this.id[i] = id;
+        this.a[i] = a;
+        this.b[i] = b;
+        counts[type]++;
+        written = seq + 1; // volatile write publishes the record
+        Thread f = follower;
+        if (f != null && seq - followed == (mask + 1) / 2)
+            LockSupport.unpark(f);
+    }
+
+    void add(int type, int round, int turn) {
+        add(type, round, turn, -1, 0, 0);
+    }
+
+    /** Drops every record and count, e.g. when a replay seeks. */
+    void clear() {
+        cleared += written;
+        followed = 0;
+        written = 0;
+        java.util.Arrays.fill(counts, 0);
+        clears++;
+    }
+
+    /**
+     * Copies the newest records and the counts of {@code src}, unless this
+     * ring already holds the same ones. Used on the HUD snapshots only, where
+     * the caller validates the copy; this only has to stay within bounds.
+     */
+    void copyFrom(EventRing src) {
+        long end = src.written;
+        int srcClears = src.clears;
+        if (end == written && srcClears == clears)
+            return;
+        long start = Math.max(0, end - Math.min(capacity(), src.capacity() - 1)); // src's next slot may be mid-write
+        for (long s = start; s < end; s++) {
+            int i = (int) s & mask, j = (int) s & src.mask;
+            type[i] = src.type[j];
+            round[i] = src.round[j];
+            turn[i] = src.turn[j];
+            id[i] = src.id[j];
+            a[i] = src.a[j];
+            b[i] = src.b[j];
+        }
+        System.arraycopy(src.counts, 0, counts, 0, TYPES);
+        written = end;
+        clears = srcClears;
+    }
+
+    /** Makes the next copyFrom() copy in full, after a torn copy. */
+    void invalidate() {
+        clears = -1;
+    }
+
+    /** Registers the thread that follows every record (EventLog), to be woken when half a ring behind. */
+    void follow(Thread thread) {
+        follower = thread;
+    }
+
+    /** The follower has read everything below {@code seq}. */
+    void followed(long seq) {
+        followed = seq;
+    }
+
+    /** Sequence the follower will read next, as it last reported it. */
+    long followed() {
+        return followed;
+    }
+
+    // ── readers ────────────────────────────────────────────────────────
+    /** Sequence number the next record will get; every record below it has been published. */
+    long written() {
+        return written;
+    }
+
+    int clears() {
+        return clears;
+    }
+
+    /** Records dropped by every clear() so far; read with clears() to tell what a follower missed. */
+    long cleared() {
+        return cleared;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** Oldest sequence number still held. */
+    long oldest() {
+        return Math.max(0, written - capacity() + 1); // the slot after the newest may be mid-write
+    }
+
+    /** Events of {@code type} since the start (or the last clear). */
+    long count(int type) {
+        return counts[type];
+    }
+
+    int type(long seq) {
+        return type[(int) seq & mask];
+    }
+
+    int round(long seq) {
+        return round[(int) seq & mask];
+    }
+
+    int turn(long seq) {
+        return turn[(int) seq & mask];
+    }
+
+    /** True if record {@code seq}, already read, was not being overwritten meanwhile. */
+    boolean stillValid(long seq) {
+        VarHandle.loadLoadFence(); // keep the record reads before the re-check
+        return seq >= oldest();
+    }
+
+    // ── formatting ─────────────────────────────────────────────────────
+    /** Appends the message for record {@code seq}, as shown in the HUD. */
+    void format(long seq, HudText.CharBuf out) {
+        int i = (int) seq & mask;
+        int other = id[i];
+        double pa = a[i], pb = b[i];
+        switch (type[i]) {
+            case ROUND_STARTED:
+                out.append("New round ");
+                HudText.appendLong(out, round[i]);
+                out.append(" started!");
+                break;
+            case HIT_WALL:
+                out.append("You hit a wall!");
+                break;
+            case HIT_BY_BULLET: // a = bullet direction, b = power
+                out.append("You were hit by a bullet at ");
+                HudText.appendTenths(out, Math.round(pa * 10));
+                out.append("\u00b0 (power ");
+                HudText.appendTenths(out, Math.round(pb * 10));
+                out.append(")!");
+                break;
+            case HIT_BOT: // a = 1 if we rammed
+                out.append(pa != 0 ? "You rammed #" : "You collided with #");
+                HudText.appendLong(out, other);
+                break;
+            case BULLET_HIT: // a = damage
+                out.append("Your bullet hit #");
+                HudText.appendLong(out, other);
+                out.append(" for ");
+                HudText.appendTenths(out, Math.round(pa * 10));
+                break;
+            case BULLET_MISSED:
+                out.append("Your bullet hit a wall");
+                break;
+            case BULLET_HIT_BULLET:
+                out.append("Your bullet hit a bullet of #");
+                HudText.appendLong(out, other);
+                break;
+            case BOT_DEATH:
+                out.append("Bot #");
+                HudText.appendLong(out, other);
+                out.append(" died");
+                break;
+            case DEATH:
+                out.append("You died!");
+                break;
+            case WON_ROUND:
+                out.append("You won the round!");
+                break;
+            case SKIPPED_TURN:
+                out.append("Skipped turn ");
+                HudText.appendLong(out, turn[i]);
+                break;
+            case FIRED: // a = power
+                out.append("Fired with power ");
+                HudText.appendTenths(out, Math.round(pa * 10));
+                break;
+            default:
+                out.append("Event ");
+                HudText.appendLong(out, type[i]);
+                break;
+        }
+    }
+
+    /** Appends the non-zero counts, e.g. "wall 3, fired 12". */
+    void formatCounts(HudText.CharBuf out) {
+        boolean first = true;
+        for (int t = 0; t < TYPES; t++) {
+            if (counts[t] == 0)
+                continue;
+            if (!first)
+                out.append(", ");
+            first = false;
+            out.append(TYPE_NAMES[t]).append(' ');
+            HudText.appendLong(out, counts[t]);
+        }
+        if (first)
+            out.append("no events yet");
+    }
+}
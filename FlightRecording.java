@@ -0,0 +1,293 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * Java Flight Recorder events for the bot (--jfr=<file>), so a stutter can
+ * be lined up with GC, safepoints and thread activity in JDK Mission
+ * Control or `jfr print`:
+ *
+ *   playerbot.Turn      one run() turn, start to go() returning, with the
+ *                       time of every TurnProfiler stage before go()
+ *   playerbot.Scan      handling one onScannedBot
+ *   playerbot.Key       a key press or release taken by dispatch()
+ *   playerbot.HudText   rebuilding the HUD text and handing it to the TextAreas
+ *   playerbot.Compass   composing and showing a compass frame, or re-showing
+ *                       it from paint() on the EDT
+ *
+ * Every event carries the turn number and the number of tracked enemies,
+ * and those written on the bot or render thread also the bot's name.
+ *
+ * start() begins one continuous recording for the whole JVM with the JDK's
+ * "default" settings (the low-overhead continuous profile) plus these
+ * events, kept on disk for MAX_AGE. It is dumped to the file on exit and,
+ * from a background thread, at every round end, so the file always holds
+ * the last MAX_AGE up to the latest round. Until start() succeeds `on` is
+ * false and the call sites touch no jdk.jfr class, so a runtime without the
+ * jdk.jfr module runs as before.
+ */
+final class FlightRecording {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    /** True once the recording runs; call sites create events only then. */
+    static volatile boolean on;
+
+    private static Recording recording; // under FlightRecording.class
+    private static Path file;
+    private static Thread dumper;
+    private static volatile boolean dumpRequested;
+
+    private FlightRecording() {
+    }
+
+    /** Starts the recording into {@code target}; later calls (other bots of this JVM) do nothing. */
+    static synchronized void start(Path target) {
+        if (recording != null)
+            return;
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName("PlayerBot");
+            r.setToDisk(true);
+            r.setMaxAge(MAX_AGE);
+            r.setDestination(target); // written when the recording stops, i.e. on exit
+            r.setDumpOnExit(true);
+            r.enable(Turn.class);
+            r.enable(Scan.class);
+            r.enable(Key.class);
+            r.enable(HudText.class);
+            r.enable(Compass.class);
+            r.start();
+            recording = r;
+            file = target;
+            dumper = new Thread(FlightRecording::dumpLoop, "PlayerBot JFR dump");
+            dumper.setDaemon(true);
+            dumper.start();
+            on = true;
+            System.out.println("Flight recording to " + target + " (dumped at round end and on exit)");
+        } catch (IOException | java.text.ParseException | RuntimeException e) {
+            System.err.println("Flight recording not started: " + e.getMessage());
+        } catch (LinkageError e) { // a runtime image without jdk.jfr
+            System.err.println("Flight recording not available in this runtime: " + e);
+        }
+    }
+
+    /** Asks for the recording so far to be written to the file; returns at once. */
+    static void dump() {
+        dumpRequested = true;
+        LockSupport.unpark(dumper);
+    }
+
+    private static void dumpLoop() {
+        while (true) {
+            LockSupport.park(FlightRecording.class);
+            if (!dumpRequested)
+                continue;
+            dumpRequested = false; // requests during the dump make one more
+            try {
+                Recording r;
+                synchronized (FlightRecording.class) {
+                    r = recording;
+                }
+                r.dump(file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Flight recording dump failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // ── events ─────────────────────────────────────────────────────────
+    @Name("playerbot.Turn")
+    @Label("Turn")
+    @Category("PlayerBot")
+    @Description("One run() turn, from its start until go() returned with the next tick")
+    @StackTrace(false)
+    static final class Turn extends Event {
+        @Label("Bot")
+        String bot;
+        @Label("Round")
+        int round;
+        @Label("Turn")
+        int turn;
+        @Label("Enemies")
+        int enemies;
+        @Label("Input") @Timespan(Timespan.NANOSECONDS)
+        long input;
+        @Label("Track") @Timespan(Timespan.NANOSECONDS)
+        long track;
+        @Label("Aim") @Timespan(Timespan.NANOSECONDS)
+        long aim;
+        @Label("Radar") @Timespan(Timespan.NANOSECONDS)
+        long radar;
+        @Label("Movement") @Timespan(Timespan.NANOSECONDS)
+        long movement;
+        @Label("Gun") @Timespan(Timespan.NANOSECONDS)
+        long gun;
+        @Label("Fire") @Timespan(Timespan.NANOSECONDS)
+        long fire;
+        @Label("Record") @Timespan(Timespan.NANOSECONDS)
+        long record;
+        @Label("HUD publish") @Timespan(Timespan.NANOSECONDS)
+        long hud;
+        @Label("Work") @Description("Everything before go(); must fit the server's turn timeout")
+        @Timespan(Timespan.NANOSECONDS)
+        long work;
+
+        static Turn start() {
+            Turn e = new Turn();
+            e.begin();
+            return e;
+        }
+
+        /** Commits the turn; {@code stages} are TurnProfiler's per-stage nanoseconds for it. */
+        void end(String bot, int round, int turn, int enemies, long[] stages, long work) {
+            this.bot = bot;
+            this.round = round;
+            this.turn = turn;
+            this.enemies = enemies;
+            input = stages[TurnProfiler.INPUT];
+            track = stages[TurnProfiler.TRACK];
+            aim = stages[TurnProfiler.AIM];
+            radar = stages[TurnProfiler.RADAR];
+            movement = stages[TurnProfiler.MOVEMENT];
+            gun = stages[TurnProfiler.GUN];
+            fire = stages[TurnProfiler.FIRE];
+            record = stages[TurnProfiler.RECORD];
+            hud = stages[TurnProfiler.HUD];
+            this.work = work;
+            commit();
+        }
+    }
+
+    @Name("playerbot.Scan")
+    @Label("Scan")
+    @Category("PlayerBot")
+    @Description("Handling one ScannedBotEvent in onScannedBot")
+    @StackTrace(false)
+    static final class Scan extends Event {
+        @Label("Bot")
+        String bot;
+        @Label("Turn")
+        int turn;
+        @Label("Enemies")
+        int enemies;
+        @Label("Scanned bot")
+        int scanned;
+
+        static Scan start() {
+            Scan e = new Scan();
+            e.begin();
+            return e;
+        }
+
+        void end(String bot, int turn, int enemies, int scanned) {
+            this.bot = bot;
+            this.turn = turn;
+            this.enemies = enemies;
+            this.scanned = scanned;
+            commit();
+        }
+    }
+
+    @Name("playerbot.Key")
+    @Label("Key")
+    @Category("PlayerBot")
+    @Description("A key press or release taken by the HUD's key dispatcher")
+    @StackTrace(false)
+    static final class Key extends Event {
+        @Label("Turn") @Description("Latest turn the bot had started when the key came in")
+        int turn;
+        @Label("Enemies")
+        int enemies;
+        @Label("Key code")
+        int keyCode;
+        @Label("Press")
+        boolean press;
+        @Label("Edge") @Description("False for auto-repeat and other events that did not change the key's level")
+        boolean edge;
+
+        static void emit(KeyState keys, int keyCode, boolean press, boolean edge) {
+            Key e = new Key();
+            e.turn = keys.contextTurn();
+            e.enemies = keys.contextEnemies();
+            e.keyCode = keyCode;
+            e.press = press;
+            e.edge = edge;
+            e.commit();
+        }
+    }
+
+    @Name("playerbot.HudText")
+    @Label("HUD text")
+    @Category("PlayerBot")
+    @Description("Rebuilding the HUD text from a snapshot and setting the TextAreas that changed")
+    @StackTrace(false)
+    static final class HudText extends Event {
+        @Label("Bot")
+        String bot;
+        @Label("Turn")
+        int turn;
+        @Label("Enemies")
+        int enemies;
+        @Label("Stats changed")
+        boolean info;
+        @Label("Events changed")
+        boolean events;
+
+        static HudText start() {
+            HudText e = new HudText();
+            e.begin();
+            return e;
+        }
+
+        void end(String bot, int turn, int enemies, boolean info, boolean events) {
+            this.bot = bot;
+            this.turn = turn;
+            this.enemies = enemies;
+            this.info = info;
+            this.events = events;
+            commit();
+        }
+    }
+
+    @Name("playerbot.Compass")
+    @Label("Compass paint")
+    @Category("PlayerBot")
+    @Description("Composing and showing a compass frame, or re-showing the last one from paint()")
+    @StackTrace(false)
+    static final class Compass extends Event {
+        @Label("Turn")
+        int turn;
+        @Label("Enemies")
+        int enemies;
+        @Label("Dirty regions") @Description("Rectangles copied to the screen, -1 for the whole frame")
+        int dirty;
+        @Label("EDT repaint")
+        boolean repaint;
+
+        static Compass start() {
+            Compass e = new Compass();
+            e.begin();
+            return e;
+        }
+
+        void end(int turn, int enemies, int dirty, boolean repaint) {
+            this.turn = turn;
+            this.enemies = enemies;
+            this.dirty = dirty;
+            this.repaint = repaint;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Per-turn copy of our own bot state, the nearest enemy waves and the
+ * event log for the HUD.
+ *
+ * The bot thread fills one instance inside RenderScheduler's publish
+ * window; the render thread copies it into its own instance and draws from
+ * that, so neither the TextAreas nor the compass ever read live bot state.
+ * Only primitives are stored, events included (a small EventRing holding
+ * the newest records), so publishing does not allocate. Enemies are read
+ * from the EnemyTracker's own seqlock instead.
+ */
+final class HudSnapshot {
+
+    // ── own bot ────────────────────────────────────────────────────────
+    int round, rounds, turn;
+    int arenaWidth, arenaHeight;
+    double energy, x, y;
+    double heading, gunHeading, radarHeading;
+    double gunHeat, speed;
+    int keys; // ScriptedInput.keyMask
+    long keyEdgesDropped; // KeyState.droppedEdges
+
+    // ── aim assist ─────────────────────────────────────────────────────
+    boolean aimOn;
+    int aimTarget = -1; // bot id, -1 = no solution
+    double aimAngle;
+    int aimFlight;
+    boolean aimCircular;
+
+    // ── radar (RadarScheduler) ─────────────────────────────────────────
+    int radarMode = -1; // -1 = not scheduled here (replay)
+    int radarTarget = -1;
+    double staleAvg, roundStaleAvg;
+    int staleMax, roundStaleMax, unseen;
+
+    // ── enemy waves (WaveTracker), nearest first ───────────────────────
+    int waves, threats;
+    final int[] threatShooter = new int[WaveTracker.THREATS];
+    final double[] threatBearing = new double[WaveTracker.THREATS];
+    final double[] threatTurns = new double[WaveTracker.THREATS];
+    final double[] threatPower = new double[WaveTracker.THREATS];
+
+    // ── turn latency (TurnProfiler summary, nanoseconds) ───────────────
+    final long[] latency = new long[TurnProfiler.STAGES * TurnProfiler.SUMMARY_WIDTH];
+    long skippedTurns;
+
+    // ── event log ──────────────────────────────────────────────────────
+    final int maxEvents; // newest events shown
+    final EventRing events;
+
+    HudSnapshot(int maxEvents) {
+        this.maxEvents = maxEvents;
+        events = new EventRing(maxEvents + 1);
+    }
+
+    /**
+     * Copies {@code src} into this instance. The source may be written
+     * concurrently; callers validate the copy with the publishing seqlock,
+     * so this only has to stay within array bounds.
+     */
+    void copyFrom(HudSnapshot src) {
+        round = src.round;
+        rounds = src.rounds;
+        turn = src.turn;
+        arenaWidth = src.arenaWidth;
+        arenaHeight = src.arenaHeight;
+        energy = src.energy;
+        x = src.x;
+        y = src.y;
+        heading = src.heading;
+        gunHeading = src.gunHeading;
+        radarHeading = src.radarHeading;
+        gunHeat = src.gunHeat;
+        speed = src.speed;
+        keys = src.keys;
+        keyEdgesDropped = src.keyEdgesDropped;
+        aimOn = src.aimOn;
+        aimTarget = src.aimTarget;
+        aimAngle = src.aimAngle;
+        aimFlight = src.aimFlight;
+        aimCircular = src.aimCircular;
+        radarMode = src.radarMode;
+        radarTarget = src.radarTarget;
+        staleAvg = src.staleAvg;
+        roundStaleAvg = src.roundStaleAvg;
+        staleMax = src.staleMax;
+        roundStaleMax = src.roundStaleMax;
+        unseen = src.unseen;
+        waves = src.waves;
+        threats = Math.min(src.threats, WaveTracker.THREATS);
+        System.arraycopy(src.threatShooter, 0, threatShooter, 0, WaveTracker.THREATS);
+        System.arraycopy(src.threatBearing, 0, threatBearing, 0, WaveTracker.THREATS);
+        System.arraycopy(src.threatTurns, 0, threatTurns, 0, WaveTracker.THREATS);
+        System.arraycopy(src.threatPower, 0, threatPower, 0, WaveTracker.THREATS);
+        System.arraycopy(src.latency, 0, latency, 0, latency.length);
+        skippedTurns = src.skippedTurns;
+        events.copyFrom(src.events); // only when new events came in
+    }
+}
@@ -0,0 +1,647 @@
+import java.lang.management.ManagementFactory;
+
+/*
+ * Allocation-free text engine behind the PlayerBot HUD.
+ *
+ * Every line of the stats block and every enemy row keeps its own reusable
+ * char buffer together with the fixed-point values it was last rendered
+ * from. A line is only re-rendered when one of its values changes at the
+ * resolution shown on screen (0.1 for decimals), and the assembled text is
+ * only handed out when it differs from what the TextArea already shows, so
+ * an idle HUD costs neither garbage nor an AWT re-layout.
+ */
+final class HudText {
+
+    // ── stats block layout ─────────────────────────────────────────────
+    static final int ROUND = 0, TURN = 1, ENERGY = 2, X = 3, Y = 4, HEADING = 5,
+            GUN_HEADING = 6, RADAR_HEADING = 7, GUN_HEAT = 8, SPEED = 9, ALLOC = 10;
+    private static final int STAT_LINES = 11;
+
+    private static final String LATENCY = "\n\nTurn latency (\u00b5s p50 / p99 / max)";
+    private static final String VISIBILITY = "\n\nVisibility\n";
+    private static final String NO_ENEMY = "No enemy scanned";
+
+    private final Line[] stats = {
+            new Line("Round: ", " / ", false, false),
+            new Line("Turn: ", null, false, false),
+            new Line("Energy: ", null, true, false),
+            new Line("X: ", " / ", true, false),
+            new Line("Y: ", " / ", true, false),
+            new Line("Heading: ", null, true, false),
+            new Line("Gun Heading: ", null, true, false),
+            new Line("Radar Heading: ", null, true, false),
+            new Line("Gun Heat: ", null, true, false),
+            new Line("Speed: ", null, true, false),
+            new Line("HUD alloc: ", " B/frame", false, true),
+    };
+
+    private final CharBuf keysLine = new CharBuf(64);
+    private int keyMask = -1;
+    private long keyEdgesDropped;
+    private final CharBuf aimLine = new CharBuf(64);
+    private final long[] aimShown = { Long.MIN_VALUE, 0, 0, 0 }; // target (or -2 off), tenths, flight, circular
+    private final CharBuf radarLine = new CharBuf(96);
+    private final long[] radarShown = { Long.MIN_VALUE, 0, 0, 0, 0, 0, 0 }; // mode, target, avg, max, round avg/max, unseen
+    private final CharBuf wavesLine = new CharBuf(96);
+    private final long[] wavesShown = { Long.MIN_VALUE, 0, 0, 0 }; // live, nearest shooter, tenths of turns, power
+
+    // ── turn latency block ─────────────────────────────────────────────
+    private final LatencyLine[] latency = new LatencyLine[TurnProfiler.STAGES];
+    private final Line skipped = new Line("Skipped turns: ", null, false, false);
+    private final Line frames = new Line("HUD frames drawn / superseded: ", " / ", false, false);
+
+    // ── enemy rows, indexed by bot id ──────────────────────────────────
+    private Row[] rowsById = new Row[16];
+    private int[] order = new int[16]; // ids rendered this turn, in order
+    private int[] lastOrder = new int[16]; // ids rendered last turn
+    private int orderCount, lastOrderCount;
+
+    // ── assembled output ───────────────────────────────────────────────
+    private final CharBuf info = new CharBuf(1024);
+    private final CharBuf events = new CharBuf(512);
+    private boolean infoDirty = true;
+    private long eventsWritten = -1;
+    private int eventsClears;
+
+    // ── allocation meter ───────────────────────────────────────────────
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private long allocStart;
+
+    HudText() {
+        stats[ALLOC].set(-1, 0); // until the first measurement
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new LatencyLine(TurnProfiler.STAGE_NAMES[i]);
+            latency[i].set(0, 0, 0);
+        }
+        skipped.set(0, 0);
+        frames.set(0, 0);
+        keys(0, 0);
+        aim(false, -1, 0, 0, false);
+        radar(-1, -1, 0, 0, 0, 0, 0);
+        waves(0, -1, 0, 0);
+    }
+
+    // ── tick lifecycle ─────────────────────────────────────────────────
+    /** Starts a HUD frame; must be followed by {@link #endTick()} on the same thread. */
+    void beginTick() {
+        allocStart = threadAllocatedBytes();
+        orderCount = 0;
+    }
+
+    /**
+     * Finishes the tick, assembling the output if anything changed. The
+     * allocation meter covers everything between {@code beginTick} and here,
+     * which excludes the String handed to AWT by {@link #takeInfoText()}.
+     */
+    void endTick() {
+        if (orderCount != lastOrderCount) {
+            infoDirty = true;
+        } else {
+            for (int i = 0; i < orderCount && !infoDirty; i++)
+                infoDirty = order[i] != lastOrder[i];
+        }
+        if (infoDirty)
+            assembleInfo();
+
+        int[] t = lastOrder;
+        lastOrder = order;
+        order = t;
+        lastOrderCount = orderCount;
+
+        long now = threadAllocatedBytes();
+        if (allocStart >= 0 && now >= 0) {
+            if (stats[ALLOC].set(now - allocStart, 0))
+                infoDirty = true; // shown on the next tick
+        }
+    }
+
+    // ── inputs ─────────────────────────────────────────────────────────
+    void decimal(int line, double value) {
+        if (stats[line].set(tenths(value), 0))
+            infoDirty = true;
+    }
+
+    void decimal(int line, double value, int limit) {
+        if (stats[line].set(tenths(value), limit))
+            infoDirty = true;
+    }
+
+    void integer(int line, int value, int limit) {
+        if (stats[line].set(value, limit))
+            infoDirty = true;
+    }
+
+    /** Sets one latency line; values in nanoseconds, shown in whole microseconds. */
+    void latency(int stage, long p50, long p99, long max) {
+        if (latency[stage].set(p50 / 1000, p99 / 1000, max / 1000))
+            infoDirty = true;
+    }
+
+    /** Sets the "Keys:" line from a {@link ScriptedInput#keyMask} value and KeyState's lost edges. */
+    void keys(int mask, long edgesDropped) {
+        if (mask == keyMask && edgesDropped == keyEdgesDropped)
+            return;
+        keyMask = mask;
+        keyEdgesDropped = edgesDropped;
+        keysLine.len = 0;
+        keysLine.append("Keys:");
+        for (int i = 0; i < ScriptedInput.NAMES.length; i++)
+            if ((mask & 1 << i) != 0)
+                keysLine.append(' ').append(ScriptedInput.NAMES[i]);
+        if (edgesDropped > 0) {
+            keysLine.append(" (");
+            appendLong(keysLine, edgesDropped);
+            keysLine.append(" key edges lost)");
+        }
+        infoDirty = true;
+    }
+
+    /** Sets the "Aim:" line: off, no target, or the suggested gun angle for the best target. */
+    void aim(boolean on, int target, double angle, int flight, boolean circular) {
+        long t = on ? target : -2;
+        long a = target >= 0 ? tenths(angle) : 0;
+        long fl = target >= 0 ? flight : 0;
+        long c = target >= 0 && circular ? 1 : 0;
+        long[] v = aimShown;
+        if (v[0] == t && v[1] == a && v[2] == fl && v[3] == c)
+            return;
+        v[0] = t;
+        v[1] = a;
+        v[2] = fl;
+        v[3] = c;
+        CharBuf b = aimLine;
+        b.len = 0;
+        b.append("Aim: ");
+        if (!on) {
+            b.append("off");
+        } else if (target < 0) {
+            b.append("no target");
+        } else {
+            b.append('#');
+            appendLong(b, target);
+            b.append(" at ");
+            appendTenths(b, a);
+            b.append("\u00b0, ");
+            appendLong(b, fl);
+            b.append(c != 0 ? " turns (circular)" : " turns (linear)");
+        }
+        infoDirty = true;
+    }
+
+    /**
+     * Sets the "Radar:" line: mode and sweep target, then scan staleness in
+     * turns, now and over the round. {@code mode} -1 leaves the mode out.
+     */
+    void radar(int mode, int target, double avg, int max, double roundAvg, int roundMax, int unseen) {
+        long a = tenths(avg), ra = tenths(roundAvg);
+        long[] v = radarShown;
+        if (v[0] == mode && v[1] == target && v[2] == a && v[3] == max && v[4] == ra && v[5] == roundMax
+                && v[6] == unseen)
+            return;
+        v[0] = mode;
+        v[1] = target;
+        v[2] = a;
+        v[3] = max;
+        v[4] = ra;
+        v[5] = roundMax;
+        v[6] = unseen;
+        CharBuf b = radarLine;
+        b.len = 0;
+        b.append("Radar: ");
+        if (mode >= 0) {
+            b.append(RadarScheduler.MODE_NAMES[mode]);
+            if (target >= 0) {
+                b.append(" #");
+                appendLong(b, target);
+            }
+            b.append(", ");
+        }
+        b.append("staleness avg/max ");
+        appendTenths(b, a);
+        b.append(" / ");
+        appendLong(b, max);
+        b.append(" turns (round ");
+        appendTenths(b, ra);
+        b.append(" / ");
+        appendLong(b, roundMax);
+        b.append(")");
+        if (unseen > 0) {
+            b.append(", ");
+            appendLong(b, unseen);
+            b.append(" unseen");
+        }
+        infoDirty = true;
+    }
+
+    /**
+     * Sets the "Waves:" line: live enemy waves and the one nearest to
+     * reaching us ({@code shooter} -1 for none).
+     */
+    void waves(int live, int shooter, double turns, double power) {
+        long t = shooter >= 0 ? tenths(turns) : 0;
+        long p = shooter >= 0 ? tenths(power) : 0;
+        long[] v = wavesShown;
+        if (v[0] == live && v[1] == shooter && v[2] == t && v[3] == p)
+            return;
+        v[0] = live;
+        v[1] = shooter;
+        v[2] = t;
+        v[3] = p;
+        CharBuf b = wavesLine;
+        b.len = 0;
+        b.append("Waves: ");
+        if (live == 0) {
+            b.append("none");
+        } else {
+            appendLong(b, live);
+            b.append(" live");
+            if (shooter >= 0) {
+                b.append(", nearest from #");
+                appendLong(b, shooter);
+                b.append(" in ");
+                appendTenths(b, t);
+                b.append(" turns (power ");
+                appendTenths(b, p);
+                b.append(')');
+            }
+        }
+        infoDirty = true;
+    }
+
+    void skippedTurns(long count) {
+        if (skipped.set(count, 0))
+            infoDirty = true;
+    }
+
+    /** Render thread statistics (RenderScheduler); call before {@link #frame} to show them in that frame. */
+    void renderFrames(long drawn, long superseded) {
+        if (frames.set(drawn, superseded))
+            infoDirty = true;
+    }
+
+    void enemy(int id, double angle, double x, double y, double energy, double direction, double speed,
+            double estX, double estY, double confidence) {
+        if (id < 0)
+            return;
+        if (id >= rowsById.length)
+            rowsById = java.util.Arrays.copyOf(rowsById, Math.max(id + 1, rowsById.length * 2));
+        Row row = rowsById[id];
+        if (row == null)
+            row = rowsById[id] = new Row(id);
+        if (row.set(tenths(angle), tenths(x), tenths(y), tenths(energy), tenths(direction), tenths(speed),
+                tenths(estX), tenths(estY), Math.round(confidence * 100)))
+            infoDirty = true;
+
+        if (orderCount == order.length) {
+            order = java.util.Arrays.copyOf(order, orderCount * 2);
+            lastOrder = java.util.Arrays.copyOf(lastOrder, orderCount * 2);
+        }
+        order[orderCount++] = id;
+    }
+
+    /**
+     * Rebuilds the event text, the per-type totals and the newest
+     * {@code show} events, when the ring has changed since the last call.
+     */
+    void events(EventRing ring, int show) {
+        if (ring.written() == eventsWritten && ring.clears() == eventsClears)
+            return;
+        eventsWritten = ring.written();
+        eventsClears = ring.clears();
+        CharBuf b = events;
+        b.len = 0;
+        b.append("Totals: ");
+        ring.formatCounts(b);
+        for (long s = Math.max(ring.oldest(), eventsWritten - show); s < eventsWritten; s++) {
+            b.append('\n');
+            ring.format(s, b);
+        }
+        b.pending = true;
+    }
+
+    /** Feeds one complete HUD frame: own-bot stats, enemy rows and the event log. */
+    void frame(HudSnapshot f, EnemyTracker en) {
+        beginTick();
+        integer(ROUND, f.round, f.rounds);
+        integer(TURN, f.turn, 0);
+        decimal(ENERGY, f.energy);
+        decimal(X, f.x, f.arenaWidth);
+        decimal(Y, f.y, f.arenaHeight);
+        decimal(HEADING, f.heading);
+        decimal(GUN_HEADING, f.gunHeading);
+        decimal(RADAR_HEADING, f.radarHeading);
+        decimal(GUN_HEAT, f.gunHeat);
+        decimal(SPEED, f.speed);
+        keys(f.keys, f.keyEdgesDropped);
+        aim(f.aimOn, f.aimTarget, f.aimAngle, f.aimFlight, f.aimCircular);
+        radar(f.radarMode, f.radarTarget, f.staleAvg, f.staleMax, f.roundStaleAvg, f.roundStaleMax, f.unseen);
+        if (f.threats > 0)
+            waves(f.waves, f.threatShooter[0], f.threatTurns[0], f.threatPower[0]);
+        else
+            waves(f.waves, -1, 0, 0);
+        long[] lat = f.latency;
+        for (int s = 0, i = 0; s < TurnProfiler.STAGES; s++, i += TurnProfiler.SUMMARY_WIDTH)
+            latency(s, lat[i], lat[i + 1], lat[i + 2]);
+        skippedTurns(f.skippedTurns);
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            enemy(id, en.angle(id), en.x(id), en.y(id), en.energy(id), en.direction(id), en.speed(id),
+                    en.estimatedX(id), en.estimatedY(id), en.confidence(id));
+        }
+        events(f.events, f.maxEvents);
+        endTick();
+    }
+
+    // ── outputs ────────────────────────────────────────────────────────
+    /** Returns the stats text if it changed since the last call, otherwise {@code null}. */
+    String takeInfoText() {
+        return info.take();
+    }
+
+    /** Returns the event text if it changed since the last call, otherwise {@code null}. */
+    String takeEventText() {
+        return events.take();
+    }
+
+    private void assembleInfo() {
+        infoDirty = false;
+        CharBuf out = info;
+        out.len = 0;
+        for (int i = 0; i < STAT_LINES; i++) {
+            if (i > 0)
+                out.append('\n');
+            out.append(stats[i].buf);
+        }
+        out.append('\n').append(keysLine);
+        out.append('\n').append(aimLine);
+        out.append('\n').append(radarLine);
+        out.append('\n').append(wavesLine);
+        out.append(LATENCY);
+        for (LatencyLine l : latency)
+            out.append('\n').append(l.buf);
+        out.append('\n').append(skipped.buf);
+        out.append('\n').append(frames.buf);
+        out.append(VISIBILITY);
+        if (orderCount == 0) {
+            out.append(NO_ENEMY);
+        } else {
+            for (int i = 0; i < orderCount; i++)
+                out.append(rowsById[order[i]].buf);
+        }
+        out.pending = true;
+    }
+
+    // ── fixed-point formatting ─────────────────────────────────────────
+    /** Rounds to tenths half away from zero, matching {@code %.1f}. */
+    static long tenths(double v) {
+        if (v != v)
+            return 0;
+        return v < 0 ? -Math.round(-v * 10) : Math.round(v * 10);
+    }
+
+    /** Appends {@code v} as an integer without allocating. */
+    static void appendLong(CharBuf b, long v) {
+        if (v == 0) {
+            b.append('0');
+            return;
+        }
+        if (v > 0)
+            v = -v; // digits are taken from the negative value, which Long.MIN_VALUE also has
+        else
+            b.append('-');
+        int start = b.len;
+        while (v < 0) {
+            b.append((char) ('0' - (v % 10)));
+            v /= 10;
+        }
+        b.reverse(start, b.len - 1);
+    }
+
+    /** Appends a tenths value as {@code d.d}. */
+    static void appendTenths(CharBuf b, long tenths) {
+        if (tenths < 0) { // split before negating, which would overflow on Long.MIN_VALUE
+            b.append('-');
+            appendLong(b, -(tenths / 10));
+            b.append('.').append((char) ('0' - tenths % 10));
+            return;
+        }
+        appendLong(b, tenths / 10);
+        b.append('.').append((char) ('0' + tenths % 10));
+    }
+
+    private static long threadAllocatedBytes() {
+        if (THREADS == null)
+            return -1;
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            java.lang.management.ThreadMXBean tb = ManagementFactory.getThreadMXBean();
+            if (tb instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) tb;
+                if (sun.isThreadAllocatedMemorySupported()) {
+                    sun.setThreadAllocatedMemoryEnabled(true);
+                    return sun;
+                }
+            }
+        } catch (RuntimeException | LinkageError ignored) {
+            // meter stays off
+        }
+        return null;
+    }
+
+    // ── building blocks ────────────────────────────────────────────────
+    /** One stats line: label, first value, optional separator and second value. */
+    private static final class Line {
+        final String label;
+        final String sep;
+        final boolean decimal;
+        final boolean suffixOnly; // sep is a unit suffix, no second value
+        final CharBuf buf = new CharBuf(32);
+        long a = Long.MIN_VALUE, b = Long.MIN_VALUE;
+
+        Line(String label, String sep, boolean decimal, boolean suffixOnly) {
+            this.label = label;
+            this.sep = sep;
+            this.decimal = decimal;
+            this.suffixOnly = suffixOnly;
+        }
+
+        boolean set(long a, long b) {
+            if (a == this.a && b == this.b)
+                return false;
+            this.a = a;
+            this.b = b;
+            buf.len = 0;
+            buf.append(label);
+            if (decimal)
+                appendTenths(buf, a);
+            else
+                appendLong(buf, a);
+            if (sep != null) {
+                buf.append(sep);
+                if (!suffixOnly)
+                    appendLong(buf, b);
+            }
+            return true;
+        }
+    }
+
+    /** One latency line: stage name padded to a column, then p50 / p99 / max. */
+    private static final class LatencyLine {
+        final String label;
+        final CharBuf buf = new CharBuf(48);
+        long p50 = Long.MIN_VALUE, p99, max;
+
+        LatencyLine(String name) {
+            label = (name + ":      ").substring(0, 7);
+        }
+
+        boolean set(long p50, long p99, long max) {
+            if (p50 == this.p50 && p99 == this.p99 && max == this.max)
+                return false;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+            buf.len = 0;
+            buf.append(label);
+            appendLong(buf, p50);
+            buf.append(" / ");
+            appendLong(buf, p99);
+            buf.append(" / ");
+            appendLong(buf, max);
+            return true;
+        }
+    }
+
+    /** One enemy block, rendered exactly like the former String.format row. */
+    private static final class Row {
+        final int id;
+        final CharBuf buf = new CharBuf(224);
+        final long[] v = { Long.MIN_VALUE, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+        Row(int id) {
+            this.id = id;
+        }
+
+        boolean set(long angle, long x, long y, long energy, long direction, long speed, long estX, long estY,
+                long percent) {
+            long[] c = v;
+            if (c[0] == angle && c[1] == x && c[2] == y && c[3] == energy && c[4] == direction && c[5] == speed
+                    && c[6] == estX && c[7] == estY && c[8] == percent)
+                return false;
+            c[0] = angle;
+            c[1] = x;
+            c[2] = y;
+            c[3] = energy;
+            c[4] = direction;
+            c[5] = speed;
+            c[6] = estX;
+            c[7] = estY;
+            c[8] = percent;
+            buf.len = 0;
+            buf.append("Angle: ");
+            appendTenths(buf, angle);
+            buf.append("\nEnemy ID: ");
+            appendLong(buf, id);
+            buf.append("\nEnemy X: ");
+            appendTenths(buf, x);
+            buf.append("\nEnemy Y: ");
+            appendTenths(buf, y);
+            buf.append("\nEnemy Energy: ");
+            appendTenths(buf, energy);
+            buf.append("\nEnemy Direction: ");
+            appendTenths(buf, direction);
+            buf.append("\nEnemy Speed: ");
+            appendTenths(buf, speed);
+            buf.append("\nEstimate: ");
+            if (percent == 0) {
+                buf.append("none");
+            } else {
+                appendTenths(buf, estX);
+                buf.append(", ");
+                appendTenths(buf, estY);
+                buf.append(" (");
+                appendLong(buf, percent);
+                buf.append("% confidence)");
+            }
+            buf.append("\n\n");
+            return true;
+        }
+    }
+
+    /**
+     * Growable char buffer that remembers the text it last handed out, so
+     * identical content never produces a new String.
+     */
+    static final class CharBuf {
+        char[] chars;
+        int len;
+        boolean pending; // rebuilt since the last take()
+        private char[] shown = new char[0];
+        private int shownLen = -1;
+
+        CharBuf(int capacity) {
+            chars = new char[capacity];
+        }
+
+        CharBuf append(char c) {
+            if (len == chars.length)
+                chars = java.util.Arrays.copyOf(chars, len * 2);
+            chars[len++] = c;
+            return this;
+        }
+
+        CharBuf append(String s) {
+            int n = s.length();
+            ensure(len + n);
+            s.getChars(0, n, chars, len);
+            len += n;
+            return this;
+        }
+
+        CharBuf append(CharBuf o) {
+            ensure(len + o.len);
+            System.arraycopy(o.chars, 0, chars, len, o.len);
+            len += o.len;
+            return this;
+        }
+
+        void reverse(int from, int to) {
+            while (from < to) {
+                char t = chars[from];
+                chars[from++] = chars[to];
+                chars[to--] = t;
+            }
+        }
+
+        /** Returns the content if it was rebuilt and differs from the text last taken. */
+        String take() {
+            if (!pending)
+                return null;
+            pending = false;
+            if (sameAsShown())
+                return null;
+            if (shown.length < len)
+                shown = new char[chars.length];
+            System.arraycopy(chars, 0, shown, 0, len);
+            shownLen = len;
+            return new String(chars, 0, len);
+        }
+
+        private boolean sameAsShown() {
+            if (len != shownLen)
+                return false;
+            for (int i = 0; i < len; i++)
+                if (chars[i] != shown[i])
+                    return false;
+            return true;
+        }
+
+        private void ensure(int cap) {
+            if (cap > chars.length)
+                chars = java.util.Arrays.copyOf(chars, Math.max(cap, chars.length * 2));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import java.awt.*;
+import java.awt.event.*;
+
+/*
+ * HUD window of one keyboard-driven bot: controls, settings widgets,
+ * compass, arena minimap and the two text areas.
+ *
+ * Every bot with a display gets its own window bound to its own KeyState
+ * and BotSettings, so several bots can share a JVM. Keys are taken by a
+ * KeyEventDispatcher per window: a key typed into a HUD window goes to that
+ * window's bot, and a key typed into any other window of the process (the
+ * launcher, a replay) goes to the first HUD window opened, which is what
+ * the single global hook used to do. A bot driven by a key script passes
+ * no KeyState: its window installs no dispatcher, since KeyState takes
+ * edges from a single producer and the script already is one.
+ */
+final class HudWindow {
+
+    private static final String NAME = "PlayerBot HUD";
+    private static volatile HudWindow keyboardDefault; // written under HudWindow.class
+
+    final Frame frame;
+    final TextArea infoArea;
+    final TextArea eventArea;
+    final CompassPanel compassPanel = new CompassPanel();
+    final MinimapPanel minimapPanel = new MinimapPanel();
+
+    private final KeyState keys; // null: the bot plays a key script, keys typed here are not taken
+    private final KeyEventDispatcher dispatcher = this::dispatch;
+
+    /**
+     * Builds and shows the window. Closing it exits the JVM when
+     * {@code exitOnClose} is set; otherwise only the window goes and its bot
+     * plays on without a HUD. A null {@code keys} leaves the keyboard alone.
+     */
+    HudWindow(String title, BotSettings settings, KeyState keys, boolean exitOnClose) {
+        this.keys = keys;
+        frame = new Frame(title);
+        frame.setName(NAME);
+        frame.setLayout(new BorderLayout());
+
+        Label controls = new Label(
+                "W/Up: forward  S/Down: back  A/Left: turn left  D/Right: turn right   " +
+                        "Q: gun left  E: gun right  R: center gun  F: follow aim   Shift+Space: high fire  Space: fire");
+        Checkbox kalmanBox = new Checkbox("Kalman tracking", settings.kalman);
+        kalmanBox.addItemListener(e -> settings.kalman = kalmanBox.getState());
+        Checkbox expAverageBox = new Checkbox("Exponential averaging", settings.expAverage);
+        expAverageBox.addItemListener(e -> settings.expAverage = expAverageBox.getState());
+        Checkbox aimAssistBox = new Checkbox("Aim assist", settings.aimAssist);
+        aimAssistBox.addItemListener(e -> settings.aimAssist = aimAssistBox.getState());
+        Choice radarChoice = new Choice();
+        for (String m : RadarScheduler.MODE_NAMES)
+            radarChoice.add(m);
+        radarChoice.select(settings.radarMode);
+        radarChoice.addItemListener(e -> settings.radarMode = radarChoice.getSelectedIndex());
+        Scrollbar alphaSlider = new Scrollbar(Scrollbar.HORIZONTAL, (int) (settings.angleAlpha * 100), 1, 1, 101);
+        alphaSlider.setPreferredSize(new Dimension(150, 20)); // Smaller width
+        Label alphaLabel = new Label(String.format("\u03B1: %.2f", settings.angleAlpha));
+
+        // Update alpha value
+        alphaSlider.addAdjustmentListener(e -> {
+            settings.angleAlpha = alphaSlider.getValue() / 100.0;
+            alphaLabel.setText(String.format("\u03B1: %.2f", settings.angleAlpha));
+        });
+
+        Panel eastPanel = new Panel(new FlowLayout());
+        eastPanel.add(new Label("Radar:"));
+        eastPanel.add(radarChoice);
+        eastPanel.add(aimAssistBox);
+        eastPanel.add(kalmanBox);
+        eastPanel.add(expAverageBox);
+        eastPanel.add(alphaLabel);
+        eastPanel.add(alphaSlider);
+
+        Panel northPanel = new Panel(new BorderLayout());
+        northPanel.add(controls, BorderLayout.CENTER);
+        northPanel.add(eastPanel, BorderLayout.EAST);
+        infoArea = new TextArea("", 30, 40, TextArea.SCROLLBARS_VERTICAL_ONLY);
+        infoArea.setEditable(false);
+
+        eventArea = new TextArea("", 5, 40, TextArea.SCROLLBARS_VERTICAL_ONLY);
+        eventArea.setEditable(false);
+
+        frame.add(northPanel, BorderLayout.NORTH);
+        frame.add(compassPanel, BorderLayout.CENTER);
+        frame.add(minimapPanel, BorderLayout.EAST);
+
+        Panel southPanel = new Panel(new BorderLayout());
+        southPanel.add(eventArea, BorderLayout.NORTH);
+        southPanel.add(infoArea, BorderLayout.CENTER);
+        frame.add(southPanel, BorderLayout.SOUTH); // text below the compass
+        frame.setSize(1200, 800); // extra height for compass
+        frame.setAlwaysOnTop(true);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (exitOnClose)
+                    System.exit(0);
+                close();
+            }
+        });
+
+        if (keys != null) {
+            synchronized (HudWindow.class) {
+                if (keyboardDefault == null)
+                    keyboardDefault = this;
+            }
+            KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(dispatcher);
+        }
+        frame.setVisible(true);
+    }
+
+    /** Disposes the window and stops taking keys. */
+    private void close() {
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().removeKeyEventDispatcher(dispatcher);
+        synchronized (HudWindow.class) {
+            if (keyboardDefault == this)
+                keyboardDefault = null;
+        }
+        frame.dispose();
+    }
+
+    /** Takes key events typed into this window, or into a non-HUD window if this is the default. */
+    private boolean dispatch(KeyEvent e) {
+        Window w = windowOf(e.getComponent());
+        boolean mine = w == frame;
+        if (!mine && (w == null || !NAME.equals(w.getName())))
+            mine = keyboardDefault == this;
+        return mine && PlayerBot.dispatch(keys, e);
+    }
+
+    private static Window windowOf(Component c) {
+        while (c != null && !(c instanceof Window))
+            c = c.getParent();
+        return (Window) c;
+    }
+}
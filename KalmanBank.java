@@ -0,0 +1,191 @@
+/*
+ * Bank of per-enemy Kalman filters over position and velocity.
+ *
+ * Each enemy runs two independent constant-velocity filters, one per axis,
+ * with state (position, velocity) and a 2x2 covariance stored as three
+ * doubles. A scan measures position from the event's x/y and velocity from
+ * its direction and speed; the filter is first propagated over the turns
+ * since the last scan in closed form (continuous white-noise acceleration),
+ * then corrected with two scalar updates per axis. Both steps cost the same
+ * whatever the gap, and all state sits in primitive arrays indexed by bot id,
+ * so neither scans nor predictions allocate.
+ *
+ * predict() extrapolates to any turn without touching the state and leaves
+ * the estimate in x()/y() and a confidence in (0,1] that falls as the
+ * position variance grows past a bot's size.
+ *
+ * Bot thread only; EnemyTracker.track() publishes the estimates to the HUD.
+ */
+final class KalmanBank {
+
+    private static final double ACCEL_NOISE = 1.0; // units²/turn³; bots accelerate 1/turn and turn ~1.4/turn
+    private static final double POS_NOISE = 1.0; // units²; scanned positions are exact, this only keeps P > 0
+    private static final double VEL_NOISE = 0.25; // (units/turn)²
+    private static final double BOT_RADIUS = 18;
+    private static final int MAX_EXTRAPOLATION = 90; // turns; beyond this only the variance keeps growing
+
+    // per-id rows; x axis then y axis
+    private int[] round = new int[16];
+    private int[] turn = new int[16];
+    private boolean[] known = new boolean[16];
+    private double[] px = new double[16], vx = new double[16];
+    private double[] pxx = new double[16], pxv = new double[16], pvvx = new double[16];
+    private double[] py = new double[16], vy = new double[16];
+    private double[] pyy = new double[16], pyv = new double[16], pvvy = new double[16];
+
+    // result of the last predict()
+    private double ex, ey, conf;
+
+    // ── updates ────────────────────────────────────────────────────────
+    /** Folds a scan of bot {@code id} into its filter; the first scan in a round starts it afresh. */
+    void update(int id, int round, int turn, double x, double y, double direction, double speed) {
+        if (id < 0)
+            return;
+        if (id >= known.length)
+            grow(Math.max(id + 1, known.length * 2));
+        double mvx = speed * AngleMath.cosDeg(direction), mvy = speed * AngleMath.sinDeg(direction);
+
+        if (!known[id] || this.round[id] != round || turn < this.turn[id]) {
+            known[id] = true;
+            this.round[id] = round;
+            px[id] = x;
+            vx[id] = mvx;
+            py[id] = y;
+            vy[id] = mvy;
+            pxx[id] = pyy[id] = POS_NOISE;
+            pxv[id] = pyv[id] = 0;
+            pvvx[id] = pvvy[id] = VEL_NOISE;
+        } else {
+            int n = turn - this.turn[id];
+            if (n > 0) {
+                double q = ACCEL_NOISE;
+                // x axis: propagate n turns
+                px[id] += n * vx[id];
+                pxx[id] += n * (2 * pxv[id] + n * pvvx[id]) + q * n * n * n / 3;
+                pxv[id] += n * pvvx[id] + q * n * n / 2;
+                pvvx[id] += q * n;
+                // y axis
+                py[id] += n * vy[id];
+                pyy[id] += n * (2 * pyv[id] + n * pvvy[id]) + q * n * n * n / 3;
+                pyv[id] += n * pvvy[id] + q * n * n / 2;
+                pvvy[id] += q * n;
+            }
+            correctX(id, x, mvx);
+            correctY(id, y, mvy);
+        }
+        this.turn[id] = turn;
+    }
+
+    /** Position then velocity measurement on the x axis. */
+    private void correctX(int id, double mp, double mv) {
+        double p00 = pxx[id], p01 = pxv[id], p11 = pvvx[id];
+        // position: H = [1 0]
+        double s = p00 + POS_NOISE;
+        double k0 = p00 / s, k1 = p01 / s;
+        double r = mp - px[id];
+        px[id] += k0 * r;
+        vx[id] += k1 * r;
+        p11 -= k1 * p01;
+        p01 -= k0 * p01;
+        p00 -= k0 * p00;
+        // velocity: H = [0 1]
+        s = p11 + VEL_NOISE;
+        k0 = p01 / s;
+        k1 = p11 / s;
+        r = mv - vx[id];
+        px[id] += k0 * r;
+        vx[id] += k1 * r;
+        p00 -= k0 * p01;
+        p01 -= k0 * p11;
+        p11 -= k1 * p11;
+        pxx[id] = p00;
+        pxv[id] = p01;
+        pvvx[id] = p11;
+    }
+
+    private void correctY(int id, double mp, double mv) {
+        double p00 = pyy[id], p01 = pyv[id], p11 = pvvy[id];
+        double s = p00 + POS_NOISE;
+        double k0 = p00 / s, k1 = p01 / s;
+        double r = mp - py[id];
+        py[id] += k0 * r;
+        vy[id] += k1 * r;
+        p11 -= k1 * p01;
+        p01 -= k0 * p01;
+        p00 -= k0 * p00;
+        s = p11 + VEL_NOISE;
+        k0 = p01 / s;
+        k1 = p11 / s;
+        r = mv - vy[id];
+        py[id] += k0 * r;
+        vy[id] += k1 * r;
+        p00 -= k0 * p01;
+        p01 -= k0 * p11;
+        p11 -= k1 * p11;
+        pyy[id] = p00;
+        pyv[id] = p01;
+        pvvy[id] = p11;
+    }
+
+    /** Forgets every filter, when a new game starts. */
+    void clear() {
+        java.util.Arrays.fill(known, false);
+    }
+
+    // ── predictions ────────────────────────────────────────────────────
+    /**
+     * Extrapolates bot {@code id} to {@code turn} of {@code round}, clamped to
+     * the arena when its size is known. Returns false (and leaves nothing
+     * usable) if the bot has not been scanned in that round.
+     */
+    boolean predict(int id, int round, int turn, double arenaWidth, double arenaHeight) {
+        if (id < 0 || id >= known.length || !known[id] || this.round[id] != round)
+            return false;
+        int n = Math.max(0, turn - this.turn[id]);
+        int m = Math.min(n, MAX_EXTRAPOLATION); // the bot cannot keep going straight forever
+        double q = ACCEL_NOISE;
+        double qx = px[id] + m * vx[id];
+        double qy = py[id] + m * vy[id];
+        double var = pxx[id] + pyy[id]
+                + n * (2 * (pxv[id] + pyv[id]) + n * (pvvx[id] + pvvy[id])) + 2 * q * n * n * n / 3.0;
+        if (arenaWidth > 0 && arenaHeight > 0) {
+            qx = Math.max(BOT_RADIUS, Math.min(arenaWidth - BOT_RADIUS, qx));
+            qy = Math.max(BOT_RADIUS, Math.min(arenaHeight - BOT_RADIUS, qy));
+        }
+        ex = qx;
+        ey = qy;
+        conf = BOT_RADIUS * BOT_RADIUS / (BOT_RADIUS * BOT_RADIUS + var);
+        return true;
+    }
+
+    /** Estimated x of the last successful predict(). */
+    double x() {
+        return ex;
+    }
+
+    double y() {
+        return ey;
+    }
+
+    /** Confidence of the last successful predict(), in (0,1]; 1 is a fresh scan. */
+    double confidence() {
+        return conf;
+    }
+
+    // ── storage ────────────────────────────────────────────────────────
+    private void grow(int cap) {
+        round = java.util.Arrays.copyOf(round, cap);
+        turn = java.util.Arrays.copyOf(turn, cap);
+        known = java.util.Arrays.copyOf(known, cap);
+        px = java.util.Arrays.copyOf(px, cap);
+        vx = java.util.Arrays.copyOf(vx, cap);
+        pxx = java.util.Arrays.copyOf(pxx, cap);
+        pxv = java.util.Arrays.copyOf(pxv, cap);
+        pvvx = java.util.Arrays.copyOf(pvvx, cap);
+        py = java.util.Arrays.copyOf(py, cap);
+        vy = java.util.Arrays.copyOf(vy, cap);
+        pyy = java.util.Arrays.copyOf(pyy, cap);
+        pyv = java.util.Arrays.copyOf(pyv, cap);
+        pvvy = java.util.Arrays.copyOf(pvvy, cap);
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Keyboard state shared between the AWT event thread and the bot thread.
+ *
+ * The current level of every key lives in an atomic bitset indexed by key
+ * code, so polling a key is a single array read with no boxing. Every level
+ * change is also pushed, with its timestamp, onto a single-producer /
+ * single-consumer ring. Once per turn the bot thread drains the ring with
+ * beginTurn(), so a press and release that both happen between two turns
+ * still shows up as a press edge on the next turn instead of being lost.
+ */
+final class KeyState {
+
+    /** Key codes at or above this are ignored (all VK_ constants fit). */
+    static final int MAX_CODE = 1 << 16;
+    private static final int WORDS = MAX_CODE >>> 6;
+
+    private static final int RING_SIZE = 256; // power of two
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final int PRESS = 1 << 31;
+
+    // ── shared state ───────────────────────────────────────────────────
+    private final AtomicLongArray down = new AtomicLongArray(WORDS);
+    private final int[] ringCodes = new int[RING_SIZE]; // code | PRESS
+    private final long[] ringTimes = new long[RING_SIZE];
+    private final AtomicLong tail = new AtomicLong(); // next slot to write, producer only
+    private final AtomicLong head = new AtomicLong(); // next slot to read, consumer only
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile int contextTurn, contextEnemies; // for the flight recorder's key events
+
+    // ── per-turn view, bot thread only ─────────────────────────────────
+    private final long[] pressed = new long[WORDS];
+    private final long[] released = new long[WORDS];
+    private final int[] touched = new int[RING_SIZE]; // words to clear next turn
+    private int touchedCount;
+    private final int[] turnCodes = new int[RING_SIZE];
+    private final long[] turnTimes = new long[RING_SIZE];
+    private int turnEdges;
+
+    // ── producer side (EDT) ────────────────────────────────────────────
+    /** Records a key press; auto-repeat presses of a held key are ignored. Returns true for an edge. */
+    boolean press(int code, long nanos) {
+        if (code < 0 || code >= MAX_CODE)
+            return false;
+        long bit = 1L << code;
+        if ((down.getAndAccumulate(code >>> 6, bit, KeyState::or) & bit) != 0)
+            return false;
+        offer(code | PRESS, nanos);
+        return true;
+    }
+
+    boolean release(int code, long nanos) {
+        if (code < 0 || code >= MAX_CODE)
+            return false;
+        long bit = 1L << code;
+        if ((down.getAndAccumulate(code >>> 6, ~bit, KeyState::and) & bit) == 0)
+            return false;
+        offer(code, nanos);
+        return true;
+    }
+
+    private void offer(int edge, long nanos) {
+        long t = tail.get();
+        if (t - head.get() >= RING_SIZE) {
+            dropped.incrementAndGet(); // level is still right, only the edge is lost
+            return;
+        }
+        int slot = (int) t & RING_MASK;
+        ringCodes[slot] = edge;
+        ringTimes[slot] = nanos;
+        tail.lazySet(t + 1); // release: slot contents visible before the new tail
+    }
+
+    // ── consumer side (bot thread) ─────────────────────────────────────
+    /**
+     * Drains the edges queued since the previous call and makes them
+     * available through {@link #pressed}, {@link #released} and the edge
+     * accessors until the next call.
+     */
+    void beginTurn() {
+        for (int i = 0; i < touchedCount; i++) {
+            int w = touched[i];
+            pressed[w] = 0;
+            released[w] = 0;
+        }
+        touchedCount = 0;
+        turnEdges = 0;
+
+        long h = head.get();
+        long t = tail.get();
+        for (; h < t; h++) {
+            int slot = (int) h & RING_MASK;
+            int edge = ringCodes[slot];
+            int code = edge & ~PRESS;
+            int w = code >>> 6;
+            if (pressed[w] == 0 && released[w] == 0)
+                touched[touchedCount++] = w;
+            if ((edge & PRESS) != 0)
+                pressed[w] |= 1L << code;
+            else
+                released[w] |= 1L << code;
+            turnCodes[turnEdges] = edge;
+            turnTimes[turnEdges] = ringTimes[slot];
+            turnEdges++;
+        }
+        head.lazySet(h); // hand the slots back to the producer
+    }
+
+    /** Current level of the key. */
+    boolean isDown(int code) {
+        return code >= 0 && code < MAX_CODE && (down.get(code >>> 6) & (1L << code)) != 0;
+    }
+
+    /** True if the key went down at least once since the previous turn. */
+    boolean pressed(int code) {
+        return code >= 0 && code < MAX_CODE && (pressed[code >>> 6] & (1L << code)) != 0;
+    }
+
+    /** True if the key went up at least once since the previous turn. */
+    boolean released(int code) {
+        return code >= 0 && code < MAX_CODE && (released[code >>> 6] & (1L << code)) != 0;
+    }
+
+    /** Number of times the key went down since the previous turn. */
+    int presses(int code) {
+        int n = 0;
+        for (int i = 0; i < turnEdges; i++)
+            if (turnCodes[i] == (code | PRESS))
+                n++;
+        return n;
+    }
+
+    /** Held now, or tapped since the previous turn. */
+    boolean active(int code) {
+        return isDown(code) || pressed(code);
+    }
+
+    /** Number of edges drained by the last {@link #beginTurn()}. */
+    int edges() {
+        return turnEdges;
+    }
+
+    int edgeCode(int i) {
+        return turnCodes[i] & ~PRESS;
+    }
+
+    boolean edgeIsPress(int i) {
+        return (turnCodes[i] & PRESS) != 0;
+    }
+
+    /** {@link System#nanoTime()} at which the edge was dispatched. */
+    long edgeNanos(int i) {
+        return turnTimes[i];
+    }
+
+    // ── flight recorder context ────────────────────────────────────────
+    /** The bot thread's turn and enemy count, stamped on key events recorded on the EDT. */
+    void context(int turn, int enemies) {
+        contextTurn = turn;
+        contextEnemies = enemies;
+    }
+
+    int contextTurn() {
+        return contextTurn;
+    }
+
+    int contextEnemies() {
+        return contextEnemies;
+    }
+
+    /** Edges lost because the ring was full (the bot thread stalled). */
+    long droppedEdges() {
+        return dropped.get();
+    }
+
+    private static long or(long a, long b) {
+        return a | b;
+    }
+
+    private static long and(long a, long b) {
+        return a & b;
+    }
+}
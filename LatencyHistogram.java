@@ -0,0 +1,89 @@
+/*
+ * Fixed-memory, log-bucketed latency histogram.
+ *
+ * Values (nanoseconds) are bucketed by their highest set bit and the next
+ * SUB_BITS bits below it, so every bucket spans at most 1/16 of its lower
+ * bound: percentiles are accurate to ~6% across the whole range from 1 ns
+ * to hours, in a few KB that never grow. Recording is a couple of bit
+ * operations and one array increment; not thread-safe, one writer only.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        counts[index(nanos)]++;
+        total++;
+        if (nanos > max)
+            max = nanos;
+    }
+
+    long count() {
+        return total;
+    }
+
+    long max() {
+        return max;
+    }
+
+    /**
+     * Value at or below which {@code p} (0..1) of the recorded values lie,
+     * reported as the upper bound of the matching bucket; 0 when empty.
+     */
+    long percentile(double p) {
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(p * total);
+        if (rank < 1)
+            rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    void reset() {
+        java.util.Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    /** Adds this histogram's counts to {@code dst}. */
+    void addTo(LatencyHistogram dst) {
+        for (int i = 0; i < BUCKETS; i++)
+            dst.counts[i] += counts[i];
+        dst.total += total;
+        if (max > dst.max)
+            dst.max = max;
+    }
+
+    // ── bucket math ────────────────────────────────────────────────────
+    private static int index(long v) {
+        if (v < SUB)
+            return (int) v;
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        int shift = msb - SUB_BITS;
+        int sub = (int) (v >>> shift) & (SUB - 1);
+        return (shift + 1) * SUB + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB)
+            return index;
+        int shift = index / SUB - 1;
+        long sub = index % SUB;
+        long lower = (SUB + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,162 @@
+import java.awt.GraphicsEnvironment;
+
+/*
+ * Command-line options shared by PlayerBot.main and Launcher.main.
+ *
+ *   <server-url> <server-secret>   positional, required to start a bot
+ *   --headless                     no AWT at all: no HUD window, no key hook
+ *   --script=<file>                drive the keys from a script (see ScriptedInput);
+ *                                  the HUD window, if any, then takes no keys
+ *   --hud-log=<file>|-|off         compact HUD log; "-" is stdout (headless default: off)
+ *   --latency-csv=<file>           append per-window turn latency rows (see TurnProfiler)
+ *   --aim-assist                   start with aim assist on (hold F to follow it)
+ *   --no-kalman                    start with Kalman tracking off (radar-angle EMA instead)
+ *   --radar=off|spin|melee|lock    radar mode (see RadarScheduler; default melee)
+ *   --record=<file>                record the match (see MatchRecorder)
+ *   --event-log=<file>             append every game event to <file> (see EventLog)
+ *   --log-file=<file>              launcher window: also write the log to <file>, rotated at 4 MB
+ *   --replay=<file>                open a recording in the replay viewer instead of connecting
+ *   --bots=<spec>                  run several bots in this JVM (see BotPool)
+ *   --fast-start                   connect and send the first intent before building the HUD window
+ *   --jfr=<file>                   continuous flight recording with the bot's events, dumped to <file>
+ *                                  at every round end and on exit (see FlightRecording)
+ *   --persistent                   stay resident: reconnect after every disconnect and reset per
+ *                                  game, keeping the HUD window and the JIT warm (see WarmLauncher)
+ *   --warm-up[=<turns>]            before connecting, play <turns> (default 3000) against an
+ *                                  in-process stand-in server to warm up the turn code
+ *   --training-run                 play a short match against an in-process stand-in server and
+ *                                  exit; the build records its class-data-sharing archive from it
+ *
+ * Headless mode is also selected by -Dplayerbot.headless=true or when the
+ * JVM itself runs headless (-Djava.awt.headless=true, no display).
+ */
+final class LaunchOptions {
+
+    static final String USAGE = "Usage: PlayerBot <server-url> <server-secret>"
+            + " [--headless] [--script=<file>] [--hud-log=<file>|-|off] [--latency-csv=<file>]"
+            + " [--aim-assist] [--no-kalman] [--radar=off|spin|melee|lock] [--record=<file>]"
+            + " [--event-log=<file>] [--bots=<spec>] [--fast-start] [--jfr=<file>]"
+            + " [--persistent] [--warm-up[=<turns>]]"
+            + "\n       PlayerBot --replay=<file>"
+            + "\n       PlayerBot --training-run [options]"
+            + "\n       Launcher [--log-file=<file>]"
+            + "\n--script drives the keys alone: without --headless the HUD window shows but takes no keys";
+
+    String serverUrl;
+    String serverSecret;
+    boolean headless = Boolean.getBoolean("playerbot.headless") || GraphicsEnvironment.isHeadless();
+    String scriptFile;
+    String hudLog;
+    String latencyCsv;
+    boolean aimAssist;
+    boolean noKalman;
+    int radarMode = RadarScheduler.MELEE;
+    String recordFile;
+    String eventLog;
+    String replayFile;
+    String logFile;
+    String bots;
+    boolean fastStart;
+    boolean trainingRun;
+    String jfrFile;
+    boolean persistent;
+    int warmUpTurns; // 0 = no warm-up
+
+    /** Parses {@code args}; throws IllegalArgumentException on unknown flags. */
+    static LaunchOptions parse(String[] args) {
+        LaunchOptions o = new LaunchOptions();
+        int positional = 0;
+        for (String a : args) {
+            if (a.equals("--headless")) {
+                o.headless = true;
+            } else if (a.startsWith("--script=")) {
+                o.scriptFile = a.substring("--script=".length());
+            } else if (a.startsWith("--hud-log=")) {
+                String v = a.substring("--hud-log=".length());
+                o.hudLog = v.equals("off") ? null : v;
+            } else if (a.startsWith("--latency-csv=")) {
+                o.latencyCsv = a.substring("--latency-csv=".length());
+            } else if (a.equals("--aim-assist")) {
+                o.aimAssist = true;
+            } else if (a.equals("--no-kalman")) {
+                o.noKalman = true;
+            } else if (a.startsWith("--radar=")) {
+                o.radarMode = java.util.Arrays.asList(RadarScheduler.MODE_NAMES)
+                        .indexOf(a.substring("--radar=".length()));
+                if (o.radarMode < 0)
+                    throw new IllegalArgumentException("Unknown radar mode: " + a);
+            } else if (a.startsWith("--record=")) {
+                o.recordFile = a.substring("--record=".length());
+            } else if (a.startsWith("--event-log=")) {
+                o.eventLog = a.substring("--event-log=".length());
+            } else if (a.startsWith("--log-file=")) {
+                o.logFile = a.substring("--log-file=".length());
+            } else if (a.startsWith("--bots=")) {
+                o.bots = a.substring("--bots=".length());
+            } else if (a.equals("--fast-start")) {
+                o.fastStart = true;
+            } else if (a.startsWith("--jfr=")) {
+                o.jfrFile = a.substring("--jfr=".length());
+            } else if (a.equals("--persistent")) {
+                o.persistent = true;
+            } else if (a.equals("--warm-up")) {
+                o.warmUpTurns = WarmLauncher.DEFAULT_TURNS;
+            } else if (a.startsWith("--warm-up=")) {
+                try {
+                    o.warmUpTurns = Integer.parseInt(a.substring("--warm-up=".length()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad turn count: " + a);
+                }
+                if (o.warmUpTurns < 0)
+                    throw new IllegalArgumentException("Bad turn count: " + a);
+            } else if (a.equals("--training-run")) {
+                o.trainingRun = true;
+            } else if (a.startsWith("--replay=")) {
+                o.replayFile = a.substring("--replay=".length());
+            } else if (a.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + a);
+            } else if (positional == 0) {
+                o.serverUrl = a;
+                positional++;
+            } else if (positional == 1) {
+                o.serverSecret = a;
+                positional++;
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + a);
+            }
+        }
+        if (o.persistent && o.bots != null)
+            throw new IllegalArgumentException("--persistent runs a single bot; it cannot be combined with --bots");
+        return o;
+    }
+
+    /** Field-by-field copy, for BotPool's per-bot options. */
+    LaunchOptions copy() {
+        LaunchOptions o = new LaunchOptions();
+        o.serverUrl = serverUrl;
+        o.serverSecret = serverSecret;
+        o.headless = headless;
+        o.scriptFile = scriptFile;
+        o.hudLog = hudLog;
+        o.latencyCsv = latencyCsv;
+        o.aimAssist = aimAssist;
+        o.noKalman = noKalman;
+        o.radarMode = radarMode;
+        o.recordFile = recordFile;
+        o.eventLog = eventLog;
+        o.replayFile = replayFile;
+        o.logFile = logFile;
+        o.bots = bots;
+        o.fastStart = fastStart;
+        o.trainingRun = trainingRun;
+        o.jfrFile = jfrFile;
+        o.persistent = persistent;
+        o.warmUpTurns = warmUpTurns;
+        return o;
+    }
+
+    /** True when both the server URL and secret were given. */
+    boolean hasServer() {
+        return serverUrl != null && serverSecret != null;
+    }
+}
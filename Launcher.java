@@ -1,13 +1,40 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 public class Launcher {
     public static void main(String[] args) {
+        StartupTimer.mainEntered();
+        LaunchOptions options;
+        try {
+            options = LaunchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+            return;
+        }
+        if (options.jfrFile != null)
+            FlightRecording.start(java.nio.file.Paths.get(options.jfrFile)); // before any bot, for the whole JVM
+
+        if (options.replayFile != null) {
+            PlayerBot.replay(options);
+            return;
+        }
+        if (options.trainingRun) {
+            PlayerBot.train(options);
+            return;
+        }
+
         // If Robocode Tank Royale supplies the server URL and secret on the
         // command line, skip the UI and start the bot immediately.
-        if (args.length >= 2) {
-            new PlayerBot(args[0], args[1]).start();
+        if (options.hasServer()) {
+            PlayerBot.play(options);
+            return;
+        }
+        if (options.headless) {
+            System.err.println("Headless mode needs the server URL and secret on the command line.");
+            System.err.println(LaunchOptions.USAGE);
             return;
         }
 
@@ -34,6 +61,11 @@ public class Launcher {
         logArea.setEditable(false);
         frame.add(logArea, BorderLayout.CENTER);
 
+        // Everything the bot prints ends up here, batched and bounded (see LogSink)
+        LogSink sink = new LogSink(logArea, options.logFile != null ? java.nio.file.Paths.get(options.logFile) : null);
+        PrintStream log = new PrintStream(sink, true, StandardCharsets.UTF_8);
+        Runtime.getRuntime().addShutdownHook(new Thread(sink::close, "PlayerBot log close"));
+
         frame.pack();
         frame.addWindowListener(new WindowAdapter() {
             @Override
@@ -43,47 +75,50 @@ public class Launcher {
         });
         frame.setVisible(true);
 
+        // --warm-up runs while the address is typed in; Connect waits for it
+        Thread warmUp = null;
+        if (options.warmUpTurns > 0) {
+            warmUp = new Thread(() -> {
+                System.setOut(log);
+                System.setErr(log);
+                WarmLauncher.warmUp(options);
+            }, "PlayerBot warm-up");
+            warmUp.setDaemon(true);
+            warmUp.start();
+        }
+        Thread warmUpThread = warmUp;
+
         connectButton.addActionListener(e -> {
             connectButton.setEnabled(false);
             statusLabel.setText("Connecting...");
-            EventQueue.invokeLater(() ->
-                    logArea.append("Connecting to " + urlField.getText() + "\n"));
+            log.println("Connecting to " + urlField.getText());
             new Thread(() -> {
                 try {
-                    PrintStream ps = new PrintStream(new TextAreaOutputStream(logArea), true);
-                    System.setOut(ps);
-                    System.setErr(ps);
-                    PlayerBot bot = new PlayerBot(urlField.getText(), secretField.getText());
-                    EventQueue.invokeLater(() -> logArea.append("Bot started\n"));
-                    bot.start();
+                    System.setOut(log);
+                    System.setErr(log);
+                    if (warmUpThread != null)
+                        warmUpThread.join();
+                    LaunchOptions o = options.copy(); // the command line's flags, the fields' server
+                    o.serverUrl = urlField.getText();
+                    o.serverSecret = secretField.getText();
+                    o.warmUpTurns = 0; // done above
+                    if (o.persistent) {
+                        // stays resident; the window remains as the bot's log
+                        EventQueue.invokeLater(() -> statusLabel.setText("Resident"));
+                        WarmLauncher.resident(o);
+                        return;
+                    }
+                    log.println("Bot started");
+                    PlayerBot.play(o);
                     frame.dispose();
                 } catch (Exception ex) {
-                    StringWriter sw = new StringWriter();
-                    ex.printStackTrace(new PrintWriter(sw));
-                    logArea.append(sw.toString());
-                    statusLabel.setText("Error: " + ex.getMessage());
-                    connectButton.setEnabled(true);
+                    ex.printStackTrace(log);
+                    EventQueue.invokeLater(() -> {
+                        statusLabel.setText("Error: " + ex.getMessage());
+                        connectButton.setEnabled(true);
+                    });
                 }
             }).start();
         });
     }
-
-    private static class TextAreaOutputStream extends OutputStream {
-        private final TextArea textArea;
-
-        TextAreaOutputStream(TextArea textArea) {
-            this.textArea = textArea;
-        }
-
-        @Override
-        public void write(int b) {
-            EventQueue.invokeLater(() -> textArea.append(String.valueOf((char) b)));
-        }
-
-        @Override
-        public void write(byte[] b, int off, int len) {
-            String text = new String(b, off, len);
-            EventQueue.invokeLater(() -> textArea.append(text));
-        }
-    }
 }
@@ -0,0 +1,307 @@
+import java.awt.EventQueue;
+import java.awt.TextArea;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Log output for the launcher window, optionally mirrored to a file.
+ *
+ * Writers (System.out/err of the whole bot, from any thread) only copy bytes
+ * into a fixed ring under a short lock; when the ring is full the oldest
+ * bytes are dropped and counted, so a chatty bot can neither block on the
+ * UI nor grow memory. A single daemon thread drains the ring every
+ * FLUSH_MILLIS, or as soon as a writer finds it half full: it writes the bytes to the log file, if any, rotating it at
+ * FILE_LIMIT bytes, and decodes them into text for the TextArea. The text is
+ * handed to the EDT with at most one invokeLater in flight; whatever arrives
+ * meanwhile is coalesced into the same append. Should the EDT fall behind,
+ * the text waiting for it is capped at MAX_PENDING_CHARS: the oldest lines
+ * are cut and counted, and the next append starts with how many. The EDT keeps the line
+ * lengths of the TextArea and cuts the oldest lines once there are more
+ * than MAX_LINES, so the component stays bounded too.
+ */
+final class LogSink extends OutputStream {
+
+    private static final int RING_BYTES = 256 * 1024;
+    private static final long FLUSH_MILLIS = 100;
+    private static final long FLUSH_NANOS = FLUSH_MILLIS * 1_000_000;
+    private static final int MAX_LINES = 2000;
+    private static final int TRIM_SLACK = MAX_LINES / 10; // lines over the cap before a trim
+    private static final int MAX_PENDING_CHARS = RING_BYTES; // text handed to the EDT but not yet appended
+    private static final long FILE_LIMIT = 4L << 20;
+    private static final int FILE_GENERATIONS = 3; // log, log.1 .. log.3
+
+    // ── ring (guarded by this) ─────────────────────────────────────────
+    private final byte[] ring = new byte[RING_BYTES];
+    private long written; // total bytes ever written; head = written % RING_BYTES
+    private long drained; // total bytes taken by the drain thread
+    private boolean wakeSent; // drain thread already unparked for a half-full ring
+    private boolean closed;
+
+    // ── drain thread ───────────────────────────────────────────────────
+    private final Thread thread;
+    private final ByteBuffer chunk = ByteBuffer.allocate(RING_BYTES + 4);
+    private final CharBuffer chars = CharBuffer.allocate(RING_BYTES + 4);
+    private int carried; // bytes of an incomplete character at the front of chunk
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final Path file; // null = no mirror
+    private OutputStream fileOut;
+    private long fileSize;
+
+    // ── hand-off to the EDT (guarded by pending) ───────────────────────
+    private final TextArea area;
+    private final StringBuilder pending = new StringBuilder();
+    private long pendingDropped; // lines cut from pending since the last append
+    private boolean appendQueued;
+
+    // ── EDT: line lengths of the TextArea, oldest first ────────────────
+    private int[] lineLengths = new int[MAX_LINES + TRIM_SLACK + 1];
+    private int firstLine, lineCount;
+    private int openLine; // chars of the last, unterminated line
+
+    /**
+     * Starts draining into {@code area} and, unless null, {@code file}. A
+     * file that cannot be opened is reported in the log instead.
+     */
+    LogSink(TextArea area, Path file) {
+        this.area = area;
+        this.file = file;
+        if (file != null) {
+            try {
+                fileOut = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                fileSize = Files.size(file);
+            } catch (IOException e) {
+                fileOut = null;
+                appendText("[log: cannot open " + file + ": " + e.getMessage() + "]\n");
+            }
+        }
+        thread = new Thread(this::drainLoop, "PlayerBot log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // ── writers (any thread) ───────────────────────────────────────────
+    @Override
+    public synchronized void write(int b) {
+        if (closed)
+            return;
+        ring[(int) (written % RING_BYTES)] = (byte) b;
+        written++;
+        wakeIfHalfFull();
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (closed)
+            return;
+        if (len > RING_BYTES) { // only the tail can survive anyway
+            off += len - RING_BYTES;
+            written += len - RING_BYTES;
+            len = RING_BYTES;
+        }
+        int head = (int) (written % RING_BYTES);
+        int first = Math.min(len, RING_BYTES - head);
+        System.arraycopy(b, off, ring, head, first);
+        System.arraycopy(b, off + first, ring, 0, len - first);
+        written += len;
+        wakeIfHalfFull();
+    }
+
+    private void wakeIfHalfFull() {
+        if (!wakeSent && written - drained > RING_BYTES / 2) {
+            wakeSent = true;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Drains what is left, flushes and closes the file. The TextArea keeps what it has. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ── drain thread ───────────────────────────────────────────────────
+    private void drainLoop() {
+        while (true) {
+            LockSupport.parkNanos(this, FLUSH_NANOS);
+            boolean last;
+            synchronized (this) {
+                last = closed; // one final drain after close()
+            }
+            drain();
+            if (last)
+                break;
+        }
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } catch (IOException ignored) {
+                // nothing left to report it to
+            }
+        }
+    }
+
+    private void drain() {
+        long lost;
+        int n;
+        synchronized (this) {
+            long from = Math.max(drained, written - RING_BYTES);
+            lost = from - drained;
+            n = (int) (written - from);
+            int tail = (int) (from % RING_BYTES);
+            int first = Math.min(n, RING_BYTES - tail);
+            chunk.position(carried).limit(chunk.capacity());
+            chunk.put(ring, tail, first);
+            chunk.put(ring, 0, n - first);
+            drained = written;
+            wakeSent = false;
+        }
+        chunk.flip();
+        if (lost > 0) {
+            chunk.position(carried); // a character cut by the gap is not worth keeping
+            decoder.reset();
+            String marker = "[log: " + lost + " bytes dropped]\n";
+            if (fileOut != null) {
+                byte[] m = marker.getBytes(StandardCharsets.UTF_8);
+                writeFile(m, 0, m.length);
+            }
+            appendText(marker);
+        }
+        if (fileOut != null && n > 0)
+            writeFile(chunk.array(), carried, n);
+
+        chars.clear();
+        decoder.decode(chunk, chars, false);
+        chars.flip();
+        if (chars.hasRemaining())
+            appendText(chars);
+        // an incomplete character at the end waits at the front of the chunk for the next drain
+        carried = chunk.remaining();
+        chunk.compact();
+    }
+
+    private void writeFile(byte[] b, int off, int len) {
+        try {
+            if (fileSize + len > FILE_LIMIT && fileSize > 0)
+                rotate();
+            fileOut.write(b, off, len);
+            fileOut.flush();
+            fileSize += len;
+        } catch (IOException e) {
+            fileOut = null;
+            appendText("[log: file mirror stopped: " + e.getMessage() + "]\n");
+        }
+    }
+
+    /** log -> log.1 -> ... -> log.N, oldest dropped. */
+    private void rotate() throws IOException {
+        fileOut.close();
+        for (int g = FILE_GENERATIONS - 1; g >= 1; g--) {
+            Path src = generation(g);
+            if (Files.exists(src))
+                Files.move(src, generation(g + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, generation(1), StandardCopyOption.REPLACE_EXISTING);
+        fileOut = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        fileSize = 0;
+    }
+
+    private Path generation(int g) {
+        return file.resolveSibling(file.getFileName() + "." + g);
+    }
+
+    // ── hand-off to the EDT ────────────────────────────────────────────
+    private void appendText(CharSequence text) {
+        synchronized (pending) {
+            pending.append(text);
+            if (pending.length() > MAX_PENDING_CHARS)
+                dropOldest();
+            if (appendQueued)
+                return; // the queued append will pick this up as well
+            appendQueued = true;
+        }
+        EventQueue.invokeLater(this::flushToArea);
+    }
+
+    /** The EDT is behind: cuts the oldest lines of pending, through the one that MAX_PENDING_CHARS falls in. */
+    private void dropOldest() {
+        int over = pending.length() - MAX_PENDING_CHARS;
+        int cut = pending.indexOf("\n", over - 1) + 1;
+        if (cut == 0)
+            cut = over; // no line end left; cut into the last line
+        long lines = pending.charAt(cut - 1) == '\n' ? 0 : 1;
+        for (int i = 0; i < cut; i++)
+            if (pending.charAt(i) == '\n')
+                lines++;
+        pending.delete(0, cut);
+        pendingDropped += lines;
+    }
+
+    /** EDT: one append for everything pending, then trims old lines. */
+    private void flushToArea() {
+        String text;
+        long dropped;
+        synchronized (pending) {
+            text = pending.toString();
+            pending.setLength(0);
+            dropped = pendingDropped;
+            pendingDropped = 0;
+            appendQueued = false;
+        }
+        if (dropped > 0)
+            text = (openLine > 0 ? "\n" : "") + "[log: " + dropped + " lines dropped]\n" + text;
+        area.append(text);
+        countLines(text);
+        if (lineCount > MAX_LINES + TRIM_SLACK) {
+            int cut = 0;
+            while (lineCount > MAX_LINES) {
+                cut += lineLengths[firstLine];
+                firstLine = (firstLine + 1) % lineLengths.length;
+                lineCount--;
+            }
+            area.replaceRange("", 0, cut);
+        }
+    }
+
+    private void countLines(String text) {
+        int start = 0;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', start)) {
+            int len = openLine + i - start + 1;
+            openLine = 0;
+            lineLengths[(firstLine + lineCount) % lineLengths.length] = len;
+            lineCount++;
+            if (lineCount == lineLengths.length)
+                growLines();
+            start = i + 1;
+        }
+        openLine += text.length() - start;
+    }
+
+    private void growLines() {
+        int[] a = new int[lineLengths.length * 2];
+        for (int i = 0; i < lineCount; i++)
+            a[i] = lineLengths[(firstLine + i) % lineLengths.length];
+        lineLengths = a;
+        firstLine = 0;
+    }
+}
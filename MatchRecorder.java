@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Binary match recording, written through a memory-mapped file.
+ *
+ * The file is a 64-byte header followed by 64-byte records, all
+ * little-endian. Every record starts with
+ *
+ *   0  byte   type (TURN, SCAN, HIT_BY_BULLET, HIT_WALL, ROUND, DEATH; 0 = end)
+ *   1  byte   reserved
+ *   2  short  reserved
+ *   4  int    round
+ *   8  int    turn
+ *
+ * and the payload offsets are the constants below. Scans and hits are
+ * written as they are dispatched during go(), so they come before the TURN
+ * record of the turn they belong to; the TURN record closes the turn with
+ * our own state, the keys acted on and the fire power (0 = no shot).
+ *
+ * A write is a few puts into a mapped region, with no syscall and no
+ * allocation. The region is mapped CHUNK bytes at a time, and a helper
+ * thread maps the next chunk ahead of the writer and touches every page of
+ * it, so the page faults of a fresh file are taken off the bot thread too
+ * (they otherwise cost ~0.4 µs per record on average). The methods are
+ * synchronized because round and game events can arrive on the client's
+ * socket thread, but the lock is uncontended on the turn path. close()
+ * truncates the file to the records written where the OS allows it (not
+ * while mapped on Windows); readers stop at the first zero type byte, so
+ * zero padding and recordings cut short by a crash read fine either way.
+ */
+final class MatchRecorder {
+
+    static final long MAGIC = 0x3130304345524250L; // "PBREC001" read as a little-endian long
+    static final int VERSION = 1;
+    static final int RECORD = 64;
+    static final int HEADER = RECORD;
+
+    // ── header ─────────────────────────────────────────────────────────
+    static final int H_MAGIC = 0, H_VERSION = 8, H_RECORD_SIZE = 12, H_START_MILLIS = 16;
+
+    // ── record types ───────────────────────────────────────────────────
+    static final byte END = 0, TURN = 1, SCAN = 2, HIT_BY_BULLET = 3, HIT_WALL = 4, ROUND = 5, DEATH = 6;
+
+    // ── common fields ──────────────────────────────────────────────────
+    static final int TYPE = 0, ROUND_NO = 4, TURN_NO = 8;
+
+    // ── TURN ───────────────────────────────────────────────────────────
+    static final int T_NANOS = 12; // long, since the recording started
+    static final int T_ENERGY = 20, T_X = 24, T_Y = 28, T_HEADING = 32, T_GUN_HEADING = 36,
+            T_RADAR_HEADING = 40, T_GUN_HEAT = 44, T_SPEED = 48; // floats
+    static final int T_KEYS = 52; // int, see ScriptedInput.CODES
+    static final int T_FIRE_POWER = 56; // float
+
+    // ── SCAN ───────────────────────────────────────────────────────────
+    static final int S_ID = 12; // int
+    static final int S_X = 16, S_Y = 20, S_ENERGY = 24, S_DIRECTION = 28, S_SPEED = 32,
+            S_ANGLE = 36; // floats; angle is the bearing as shown on the HUD
+
+    // ── HIT_BY_BULLET ──────────────────────────────────────────────────
+    static final int B_DIRECTION = 12, B_POWER = 16, B_ENERGY = 20; // floats
+
+    // ── ROUND ──────────────────────────────────────────────────────────
+    static final int R_ROUNDS = 12, R_ARENA_WIDTH = 16, R_ARENA_HEIGHT = 20; // ints
+
+    // ── DEATH (another bot died) ───────────────────────────────────────
+    static final int D_ID = 12; // int
+
+    private static final long CHUNK = 4L << 20;
+    private static final int PAGE = 4096;
+
+    private final FileChannel channel;
+    private final long startNanos = System.nanoTime();
+    private MappedByteBuffer map;
+    private volatile long mapStart; // file offset of map; read by the prefaulter
+    private long written; // bytes in the file so far, header included
+
+    // ── chunk prefaulting ──────────────────────────────────────────────
+    private final Thread prefaulter = new Thread(this::prefault, "PlayerBot recorder prefault");
+    private volatile Chunk ahead; // next chunk, mapped and touched
+    private volatile boolean closed;
+
+    MatchRecorder(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map = touch(mapChunk(0));
+        map.putLong(H_MAGIC, MAGIC);
+        map.putInt(H_VERSION, VERSION);
+        map.putInt(H_RECORD_SIZE, RECORD);
+        map.putLong(H_START_MILLIS, System.currentTimeMillis());
+        written = HEADER;
+        prefaulter.setDaemon(true);
+        prefaulter.setPriority(Thread.NORM_PRIORITY - 1);
+        prefaulter.start();
+    }
+
+    // ── records (bot thread) ───────────────────────────────────────────
+    synchronized void turn(int round, int turn, double energy, double x, double y, double heading,
+            double gunHeading, double radarHeading, double gunHeat, double speed, int keys, double firePower) {
+        int p = begin(TURN, round, turn);
+        if (p < 0)
+            return;
+        MappedByteBuffer m = map;
+        m.putLong(p + T_NANOS, System.nanoTime() - startNanos);
+        m.putFloat(p + T_ENERGY, (float) energy);
+        m.putFloat(p + T_X, (float) x);
+        m.putFloat(p + T_Y, (float) y);
+        m.putFloat(p + T_HEADING, (float) heading);
+        m.putFloat(p + T_GUN_HEADING, (float) gunHeading);
+        m.putFloat(p + T_RADAR_HEADING, (float) radarHeading);
+        m.putFloat(p + T_GUN_HEAT, (float) gunHeat);
+        m.putFloat(p + T_SPEED, (float) speed);
+        m.putInt(p + T_KEYS, keys);
+        m.putFloat(p + T_FIRE_POWER, (float) firePower);
+    }
+
+    synchronized void scan(int round, int turn, int id, double x, double y, double energy, double direction,
+            double speed, double angle) {
+        int p = begin(SCAN, round, turn);
+        if (p < 0)
+            return;
+        MappedByteBuffer m = map;
+        m.putInt(p + S_ID, id);
+        m.putFloat(p + S_X, (float) x);
+        m.putFloat(p + S_Y, (float) y);
+        m.putFloat(p + S_ENERGY, (float) energy);
+        m.putFloat(p + S_DIRECTION, (float) direction);
+        m.putFloat(p + S_SPEED, (float) speed);
+        m.putFloat(p + S_ANGLE, (float) angle);
+    }
+
+    synchronized void hitByBullet(int round, int turn, double direction, double power, double energy) {
+        int p = begin(HIT_BY_BULLET, round, turn);
+        if (p < 0)
+            return;
+        map.putFloat(p + B_DIRECTION, (float) direction);
+        map.putFloat(p + B_POWER, (float) power);
+        map.putFloat(p + B_ENERGY, (float) energy);
+    }
+
+    synchronized void hitWall(int round, int turn) {
+        begin(HIT_WALL, round, turn);
+    }
+
+    synchronized void death(int round, int turn, int id) {
+        int p = begin(DEATH, round, turn);
+        if (p >= 0)
+            map.putInt(p + D_ID, id);
+    }
+
+    synchronized void round(int round, int rounds, int arenaWidth, int arenaHeight) {
+        int p = begin(ROUND, round, 0);
+        if (p < 0)
+            return;
+        map.putInt(p + R_ROUNDS, rounds);
+        map.putInt(p + R_ARENA_WIDTH, arenaWidth);
+        map.putInt(p + R_ARENA_HEIGHT, arenaHeight);
+    }
+
+    /** Truncates the file to the records written and closes it; later records are dropped. */
+    synchronized void close() {
+        if (map == null)
+            return;
+        closed = true;
+        LockSupport.unpark(prefaulter);
+        try {
+            prefaulter.join(); // it must not map (and so extend) the file after the truncate
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        map.force();
+        map = null;
+        ahead = null;
+        try {
+            channel.truncate(written);
+        } catch (IOException e) {
+            // still mapped (Windows): the zero padding after the last record stays
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Recording not closed cleanly: " + e.getMessage());
+        }
+    }
+
+    /** Reserves the next record, writes its common fields and returns its offset in map, or -1. */
+    private int begin(byte type, int round, int turn) {
+        if (map == null)
+            return -1;
+        if (written + RECORD > mapStart + CHUNK) {
+            try {
+                nextChunk();
+            } catch (IOException e) {
+                System.err.println("Recording stopped: " + e.getMessage());
+                map = null;
+                return -1;
+            }
+        }
+        int p = (int) (written - mapStart);
+        written += RECORD;
+        map.put(p + TYPE, type);
+        map.putInt(p + ROUND_NO, round);
+        map.putInt(p + TURN_NO, turn);
+        return p;
+    }
+
+    /** Moves to the chunk after the current one, using the prefaulted one when it is ready. */
+    private void nextChunk() throws IOException {
+        long at = mapStart + CHUNK;
+        Chunk a = ahead;
+        map = a != null && a.start == at ? a.buf : mapChunk(at); // prefaulter fell behind: map it here
+        mapStart = at;
+        LockSupport.unpark(prefaulter);
+    }
+
+    private MappedByteBuffer mapChunk(long at) throws IOException {
+        MappedByteBuffer m = channel.map(FileChannel.MapMode.READ_WRITE, at, CHUNK);
+        m.order(ByteOrder.LITTLE_ENDIAN);
+        return m;
+    }
+
+    /** Writes a zero into every page, so the writer never takes a page fault on this chunk. */
+    private static MappedByteBuffer touch(MappedByteBuffer m) {
+        for (int i = 0; i < CHUNK; i += PAGE)
+            m.put(i, (byte) 0);
+        return m;
+    }
+
+    // ── prefaulter thread ──────────────────────────────────────────────
+    private void prefault() {
+        while (!closed) {
+            long want = mapStart + CHUNK;
+            Chunk a = ahead;
+            if (a != null && a.start == want) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                ahead = new Chunk(want, touch(mapChunk(want)));
+            } catch (IOException e) {
+                return; // the writer maps its own chunks, and reports the error if it recurs
+            }
+        }
+    }
+
+    private static final class Chunk {
+        final long start;
+        final MappedByteBuffer buf;
+
+        Chunk(long start, MappedByteBuffer buf) {
+            this.start = start;
+            this.buf = buf;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Read side of a MatchRecorder file.
+ *
+ * The whole file is mapped read-only and records are read in place by
+ * number. Opening walks the records once to find the end (the first zero
+ * type byte) and to build the turn index: the record number of every TURN
+ * record, plus the ROUND record that starts its round, so seeking to any
+ * turn is a binary search followed by a replay from the start of that
+ * round. Recordings larger than 2 GB are not supported.
+ */
+final class MatchReplay {
+
+    private final MappedByteBuffer map;
+    private final int records;
+    private final long startMillis;
+
+    // ── turn index ─────────────────────────────────────────────────────
+    private final int[] turnRecord; // record number of the i-th TURN record
+    private final int[] roundStart; // record number the i-th turn's round starts at
+    private final int turns;
+
+    private MatchReplay(MappedByteBuffer map, int records, long startMillis, int[] turnRecord, int[] roundStart,
+            int turns) {
+        this.map = map;
+        this.records = records;
+        this.startMillis = startMillis;
+        this.turnRecord = turnRecord;
+        this.roundStart = roundStart;
+        this.turns = turns;
+    }
+
+    static MatchReplay open(Path file) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < MatchRecorder.HEADER || size > Integer.MAX_VALUE)
+                throw new IOException(file + ": not a PlayerBot recording");
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if (map.getLong(MatchRecorder.H_MAGIC) != MatchRecorder.MAGIC)
+            throw new IOException(file + ": not a PlayerBot recording");
+        if (map.getInt(MatchRecorder.H_VERSION) != MatchRecorder.VERSION
+                || map.getInt(MatchRecorder.H_RECORD_SIZE) != MatchRecorder.RECORD)
+            throw new IOException(file + ": unsupported recording version " + map.getInt(MatchRecorder.H_VERSION));
+
+        int max = (map.capacity() - MatchRecorder.HEADER) / MatchRecorder.RECORD;
+        int[] turnRecord = new int[1024];
+        int[] roundStart = new int[1024];
+        int turns = 0;
+        int round = 0;
+        int n = 0;
+        for (; n < max; n++) {
+            byte type = map.get(MatchRecorder.HEADER + n * MatchRecorder.RECORD + MatchRecorder.TYPE);
+            if (type == MatchRecorder.END)
+                break;
+            if (type == MatchRecorder.ROUND) {
+                round = n;
+            } else if (type == MatchRecorder.TURN) {
+                if (turns == turnRecord.length) {
+                    turnRecord = java.util.Arrays.copyOf(turnRecord, turns * 2);
+                    roundStart = java.util.Arrays.copyOf(roundStart, turns * 2);
+                }
+                turnRecord[turns] = n;
+                roundStart[turns] = round;
+                turns++;
+            }
+        }
+        return new MatchReplay(map, n, map.getLong(MatchRecorder.H_START_MILLIS), turnRecord, roundStart, turns);
+    }
+
+    // ── records ────────────────────────────────────────────────────────
+    int records() {
+        return records;
+    }
+
+    long startMillis() {
+        return startMillis;
+    }
+
+    byte type(int record) {
+        return map.get(offset(record) + MatchRecorder.TYPE);
+    }
+
+    int round(int record) {
+        return map.getInt(offset(record) + MatchRecorder.ROUND_NO);
+    }
+
+    int turn(int record) {
+        return map.getInt(offset(record) + MatchRecorder.TURN_NO);
+    }
+
+    /** Float payload field at {@code field} (one of the MatchRecorder offsets). */
+    float f(int record, int field) {
+        return map.getFloat(offset(record) + field);
+    }
+
+    int i(int record, int field) {
+        return map.getInt(offset(record) + field);
+    }
+
+    long l(int record, int field) {
+        return map.getLong(offset(record) + field);
+    }
+
+    private static int offset(int record) {
+        return MatchRecorder.HEADER + record * MatchRecorder.RECORD;
+    }
+
+    // ── turn index ─────────────────────────────────────────────────────
+    /** Number of TURN records. */
+    int turns() {
+        return turns;
+    }
+
+    /** Record number of the {@code index}-th TURN record. */
+    int turnRecord(int index) {
+        return turnRecord[index];
+    }
+
+    /** Record number of the ROUND record (or file start) the {@code index}-th turn belongs to. */
+    int roundStart(int index) {
+        return roundStart[index];
+    }
+
+    /**
+     * Index of the first TURN record at or after ({@code round}, {@code turn}),
+     * or {@link #turns()} if there is none. Records are in match order, so
+     * (round, turn) only ever increases.
+     */
+    int find(int round, int turn) {
+        int lo = 0, hi = turns;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int r = turnRecord[mid];
+            int cr = round(r);
+            if (cr < round || cr == round && turn(r) < turn)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
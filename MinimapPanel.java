@@ -0,0 +1,225 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+
+/*
+ * Arena minimap: our own position, every enemy's last scanned position and
+ * the recent path of each, from a TrailStore.
+ *
+ * Trails are drawn incrementally into a persistent trail layer: each frame
+ * appends only the segments between the last point already drawn and the
+ * newest one, so the cost follows what moved, not the length of the trails.
+ * The layer is rebuilt from the stores' rings on resize, on a new arena or
+ * round, and once some trail has run SLACK points past its ring, so a trail
+ * shows between LENGTH and LENGTH + SLACK points. Each frame is that layer
+ * plus the dots, composed offscreen and pushed through the canvas'
+ * BufferStrategy by the render thread like CompassPanel; paint() on the EDT
+ * only re-shows the last frame.
+ *
+ * Render thread only, apart from paint(); renderLock serialises the two.
+ */
+final class MinimapPanel extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+    private static final int MARGIN = 8;
+    private static final int DOT = 3; // dot radius
+    private static final int SLACK = TrailStore.LENGTH / 4;
+    private static final int STALE_TURNS = 30 * 2;
+    private static final Color BACKGROUND = Color.BLACK;
+    private static final Color OWN_TRAIL = new Color(0, 120, 0), ENEMY_TRAIL = new Color(130, 40, 40);
+
+    private final Object renderLock = new Object();
+    private BufferStrategy strategy;
+    private int strategyWidth, strategyHeight;
+    private boolean composed; // a frame exists to re-show
+
+    // ── layers ─────────────────────────────────────────────────────────
+    private int width, height;
+    private BufferedImage trailLayer, frameLayer;
+    private Graphics2D trailGraphics, frameGraphics;
+
+    // ── trail layer state ──────────────────────────────────────────────
+    private int arenaWidth, arenaHeight, clears;
+    private boolean rebuild = true;
+    private double scale, originX, originY; // arena (0, 0) is the bottom left corner
+    private long[] drawnFrom = new long[16], drawnTo = new long[16]; // per id: points [from, to) on the layer
+    private String[] labels = new String[16];
+
+    MinimapPanel() {
+        setPreferredSize(new Dimension(320, 240));
+        setBackground(BACKGROUND);
+    }
+
+    @Override
+    public void update(Graphics g) {
+        paint(g); // Avoid default clear flicker
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        synchronized (renderLock) {
+            if (composed && strategy != null)
+                present();
+        }
+    }
+
+    /** Composes a frame from {@code s}, {@code en} and {@code trails} and shows it. Render thread only. */
+    void render(HudSnapshot s, EnemyTracker en, TrailStore trails) {
+        int w = getWidth(), h = getHeight();
+        if (w <= 0 || h <= 0 || !isDisplayable())
+            return;
+
+        synchronized (renderLock) {
+            if (strategy == null || w != strategyWidth || h != strategyHeight) {
+                createBufferStrategy(2);
+                strategy = getBufferStrategy();
+                strategyWidth = w;
+                strategyHeight = h;
+            }
+            compose(w, h, s, en, trails);
+            composed = true;
+            present();
+        }
+    }
+
+    /** Composes a frame and copies it into {@code g2}, for offscreen use (benchmarks); nothing is shown. */
+    void draw(Graphics2D g2, int w, int h, HudSnapshot s, EnemyTracker en, TrailStore trails) {
+        compose(w, h, s, en, trails);
+        g2.drawImage(frameLayer, 0, 0, null);
+    }
+
+    /** Makes the next frame rebuild the trail layer from the whole rings. */
+    void redrawTrails() {
+        rebuild = true;
+    }
+
+    // ── composing ──────────────────────────────────────────────────────
+    private void compose(int w, int h, HudSnapshot s, EnemyTracker en, TrailStore trails) {
+        ensureLayers(w, h);
+        if (s.arenaWidth != arenaWidth || s.arenaHeight != arenaHeight || trails.clears() != clears)
+            rebuild = true;
+        int ids = trails.capacity();
+        if (ids > drawnTo.length) {
+            drawnFrom = java.util.Arrays.copyOf(drawnFrom, ids);
+            drawnTo = java.util.Arrays.copyOf(drawnTo, ids);
+        }
+        for (int id = 0; id < ids && !rebuild; id++)
+            rebuild = trails.written(id) - drawnFrom[id] > TrailStore.LENGTH + SLACK;
+
+        Graphics2D g = trailGraphics;
+        if (rebuild) {
+            rebuild = false;
+            arenaWidth = s.arenaWidth;
+            arenaHeight = s.arenaHeight;
+            clears = trails.clears();
+            fitArena();
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, width, height);
+            if (arenaWidth > 0 && arenaHeight > 0) {
+                g.setColor(Color.DARK_GRAY);
+                g.drawRect((int) originX, (int) (originY - arenaHeight * scale), (int) (arenaWidth * scale),
+                        (int) (arenaHeight * scale));
+            }
+            for (int id = 0; id < ids; id++)
+                drawnFrom[id] = drawnTo[id] = trails.oldest(id);
+        }
+        if (arenaWidth > 0 && arenaHeight > 0)
+            for (int id = 0; id < ids; id++)
+                appendTrail(g, trails, id);
+
+        // frame: the trail layer plus this turn's dots
+        Graphics2D f = frameGraphics;
+        f.drawImage(trailLayer, 0, 0, null);
+        if (arenaWidth <= 0 || arenaHeight <= 0)
+            return;
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            int x = screenX(en.x(id)), y = screenY(en.y(id));
+            f.setColor(en.staleness(id, s.turn) > STALE_TURNS ? Color.YELLOW : Color.RED);
+            f.fillOval(x - DOT, y - DOT, 2 * DOT, 2 * DOT);
+            f.setColor(Color.WHITE);
+            f.drawString(label(id), x + DOT + 2, y + DOT);
+        }
+        int x = screenX(s.x), y = screenY(s.y);
+        f.setColor(Color.GREEN);
+        f.fillOval(x - DOT - 1, y - DOT - 1, 2 * DOT + 2, 2 * DOT + 2);
+    }
+
+    /** Draws the segments of {@code id}'s trail that are not on the layer yet. */
+    private void appendTrail(Graphics2D g, TrailStore t, int id) {
+        long end = t.written(id);
+        long n = Math.max(drawnTo[id] - 1, t.oldest(id)); // connect from the last point drawn
+        if (n + 1 < end) {
+            g.setColor(id == TrailStore.SELF ? OWN_TRAIL : ENEMY_TRAIL);
+            int px = screenX(t.x(id, n)), py = screenY(t.y(id, n));
+            for (n++; n < end; n++) {
+                int x = screenX(t.x(id, n)), y = screenY(t.y(id, n));
+                g.drawLine(px, py, x, y);
+                px = x;
+                py = y;
+            }
+        }
+        drawnTo[id] = end;
+    }
+
+    private int screenX(double x) {
+        return (int) (originX + x * scale);
+    }
+
+    private int screenY(double y) {
+        return (int) (originY - y * scale);
+    }
+
+    private String label(int id) {
+        if (id >= labels.length)
+            labels = java.util.Arrays.copyOf(labels, Math.max(id + 1, labels.length * 2));
+        String l = labels[id];
+        if (l == null)
+            l = labels[id] = Integer.toString(id);
+        return l;
+    }
+
+    // ── layers ─────────────────────────────────────────────────────────
+    private void ensureLayers(int w, int h) {
+        if (w == width && h == height && trailLayer != null)
+            return;
+        if (trailGraphics != null) {
+            trailGraphics.dispose();
+            frameGraphics.dispose();
+        }
+        width = w;
+        height = h;
+        trailLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        frameLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        trailGraphics = trailLayer.createGraphics();
+        trailGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        frameGraphics = frameLayer.createGraphics();
+        frameGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        rebuild = true;
+    }
+
+    /** Fits the arena into the panel, keeping its aspect ratio. */
+    private void fitArena() {
+        if (arenaWidth <= 0 || arenaHeight <= 0)
+            return;
+        scale = Math.min((width - 2.0 * MARGIN) / arenaWidth, (height - 2.0 * MARGIN) / arenaHeight);
+        originX = (width - arenaWidth * scale) / 2;
+        originY = (height + arenaHeight * scale) / 2;
+    }
+
+    /** Copies the frame into the back buffer and shows it, retrying while buffers are lost. */
+    private void present() {
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.drawImage(frameLayer, 0, 0, null);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
@@ -1,2 +1,2 @@
-javac -cp lib/* PlayerBot.java
+javac -encoding UTF-8 -cp "lib/*" *.java
 java -cp lib/*;. PlayerBot >nul
@@ -23,11 +23,15 @@
  *    **Q** – rotate gun left
  *    **E** – rotate gun right
  *    **R** – center gun relative to the tank
+ *    **F** – follow the aim-assist solution (when aim assist is on)
  *
  *  Fire
  *    **Shift + Space** – high-power shot
  *    **Space** or **Enter** – regular shot
  *
+ *  The radar is steered automatically (see RadarScheduler); pick the mode
+ *  in the HUD.
+ *
  *  ----------------------------------------------------------------
  *  Tip: Keep the TPS (turns-per-second) slider low while you practise
  *  so you can watch each control input take effect.
@@ -37,137 +41,315 @@
 import dev.robocode.tankroyale.botapi.*;
 import dev.robocode.tankroyale.botapi.events.ScannedBotEvent;
 
-import java.awt.*;
 import java.awt.event.*;
 import java.net.URI;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * Manual‑control bot driven by your keyboard with a live compass UI.
- * Now uses exponential averaging on enemy radar angles so that with
- * every additional scan the estimated bearing becomes progressively
- * more accurate and less noisy.
+ * Enemies are tracked by a bank of per-enemy Kalman filters over the scanned
+ * positions and velocities, extrapolated every turn, so bearings stay
+ * accurate between scans. Unticking "Kalman tracking" falls back to the
+ * exponential average over radar angles.
  */
 
 public class PlayerBot extends Bot {
 
-    // ── configuration ──────────────────────────────────────────────────
-    /** Smoothing factor for exponential moving average of enemy angles. */
-    private static double angleAlpha = 0.15; // 0 < α ≤ 1
-
-    private static Scrollbar alphaSlider;
-    private static Label alphaLabel;
-
     // ── keyboard state ─────────────────────────────────────────────────
-    private static final Set<Integer> keys = ConcurrentHashMap.newKeySet();
+    private final KeyState keys; // fed by this bot's HUD window or script
     private static final int KEY_FIRE_DELAY = 8; // ticks between shots
+    private static final int MAX_QUEUED_SHOTS = 2; // taps remembered while the gun cannot fire
     private int fireCooldown = 0;
+    private int queuedShots; // SPACE/ENTER taps not fired yet (cooldown, gun heat)
+    private double queuedPower;
+    private double firePower; // fired this turn, 0 = none; for the recorder
+
+    // ── settings and HUD window ────────────────────────────────────────
+    private final BotSettings settings; // written by the HUD widgets, read every turn
+    private volatile HudWindow hud; // null when headless, and with --fast-start until the first intent is out
+    private Runnable hudBuild; // --fast-start: builds the HUD window on its own thread after the first intent
+
+    // HUD and compass are drawn on their own thread from per-turn snapshots
+    private static final int HUD_FPS = 30;
+    private static final int HUD_LOG_FPS = 2;
+    private final RenderScheduler renderScheduler; // null when headless without a HUD log
+
+    // ── headless mode ──────────────────────────────────────────────────
+    private final ScriptedInput script; // null = keyboard
+    private final java.io.PrintStream hudLog; // compact HUD output when headless
+    private final StringBuilder hudLogLine = new StringBuilder(256);
+    private final HudText.CharBuf hudLogEvent = new HudText.CharBuf(128);
+    private long hudLogEvents = 0; // events written to the HUD log so far
+    private int hudLogClears; // of the event ring those were counted in
+
+    // Per-stage turn latency and skipped turns (bot thread only)
+    private final TurnProfiler profiler;
+    private final Thread profilerHook; // --latency-csv: writes the last window on exit; removed like eventLogHook
+
+    // Time to connect, get ready and send the first intent, reported once (see StartupTimer)
+    private final StartupTimer startup = new StartupTimer();
+    private final String label; // bot name in the report
+    private boolean firstIntent = true; // until the first intent is out (bot thread only)
+
+    // --training-run: a short match against StandInServer, for the build's class-data-sharing archive
+    private static final int TRAINING_TURNS = 500;
+    private static final int TRAINING_ENEMIES = 10;
+
+    // Match recording (--record), null when off. A resident bot opens one per game
+    // in onGameStarted, on the connection thread before that game's turn loop starts;
+    // game end closes and clears it, so users read it once into a local
+    private MatchRecorder recorder;
+    private Thread recorderHook; // closes the recorder on exit; removed when the game end closes it
+
+    // --persistent: one bot per connection of the resident launcher (see WarmLauncher)
+    private final boolean resident;
+    private final String gameRecordFile; // resident: --record, opened per game with a "-<game>" suffix
+    private int games; // started in this JVM, carried from bot to bot
+
+    // Typed game events, formatted only when shown or written (see EventRing)
+    private static final int EVENT_CAPACITY = 4096;
+    private static final int MAX_EVENTS = 20; // newest events on the HUD
+    private final EventRing events;
+    private final EventLog eventLog; // --event-log, null when off
+    private final Thread eventLogHook; // closes it on exit; one per resident bot, removed at game end otherwise
+
+    // Reusable HUD text buffers; only changed lines are re-rendered (render thread only)
+    private final HudText hudText = new HudText();
+
+    // Predicted firing solutions, refreshed every turn while aim assist is on
+    private final AimAssist aim = new AimAssist();
+
+    // Radar sweep planning and scan staleness (bot thread only)
+    private final RadarScheduler radar = new RadarScheduler();
+    private int appliedRadarMode = -1;
 
-    // ── GUI components ─────────────────────────────────────────────────
-    private static final Frame infoFrame;
-    private static final TextArea infoArea;
-    private static final TextArea eventArea;
-    private static final Checkbox expAverageBox;
+    // ── visibility tracking ────────────────────────────────────────────
+    /** Enemy rows indexed by bot id; written only from the bot thread. */
+    private final EnemyTracker enemies = new EnemyTracker();
+    /** Render thread's consistent copy of {@link #enemies}. */
+    private final EnemyTracker frameEnemies = new EnemyTracker();
+    /** Position/velocity filters behind the estimates in {@link #enemies}; bot thread only. */
+    private final KalmanBank filters = new KalmanBank();
+    /** Enemy shots inferred from scan energy drops; bot thread only. */
+    private final WaveTracker waves = new WaveTracker();
+    /** Recent positions for the minimap; written only from the bot thread. */
+    private final TrailStore trails;
+    /** Render thread's copy of {@link #trails}, brought up to date incrementally. */
+    private final TrailStore frameTrails;
 
-    private final CompassPanel compassPanel = new CompassPanel();
+    // ── entrypoint ─────────────────────────────────────────────────────
+    public static void main(String[] args) {
+        StartupTimer.mainEntered();
+        LaunchOptions options;
+        try {
+            options = LaunchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+            return;
+        }
+        if (options.jfrFile != null)
+            FlightRecording.start(java.nio.file.Paths.get(options.jfrFile)); // before any bot, for the whole JVM
+        if (options.replayFile != null) {
+            replay(options);
+            return;
+        }
+        if (options.trainingRun) {
+            train(options);
+            return;
+        }
+        if (!options.hasServer()) {
+            System.err.println(LaunchOptions.USAGE);
+            return;
+        }
+        play(options);
+    }
 
-    // Recent event messages for the HUD
-    private final java.util.Deque<String> eventLog = new java.util.ArrayDeque<>();
-    private static final int MAX_EVENTS = 20;
+    /** Warms up if asked to, then plays: a resident bot, the bots of --bots, or one bot for one connection. */
+    static void play(LaunchOptions options) {
+        if (options.warmUpTurns > 0)
+            WarmLauncher.warmUp(options);
+        if (options.persistent)
+            WarmLauncher.resident(options);
+        else if (options.bots != null)
+            startPool(options);
+        else
+            new PlayerBot(options).playConnection();
+    }
 
-    // ── event logging ─────────────────────────────────────────────────
-    private void logEvent(String msg) {
-        if (eventLog.size() >= MAX_EVENTS)
-            eventLog.removeFirst();
-        eventLog.addLast(msg);
+    /** Runs the bots of {@code --bots}; reports a bad spec like a bad option. */
+    static void startPool(LaunchOptions options) {
+        try {
+            BotPool.run(options, options.bots);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+        }
     }
 
-    // ── visibility tracking ────────────────────────────────────────────
-    private static class EnemyInfo {
-        ScannedBotEvent event; // last scan event for this enemy
-        boolean initialized = false; // have we received at least one scan?
-        double sx, sy; // smoothed unit‑vector components
-        double angle; // smoothed bearing in degrees (0° = east)
-        int sinceLastScan;
+    /** Opens the replay viewer for {@code --replay}; needs a display. */
+    static void replay(LaunchOptions options) {
+        if (options.headless) {
+            System.err.println("Replay needs a display; it cannot run headless.");
+            return;
+        }
+        try {
+            ReplayViewer.show(java.nio.file.Paths.get(options.replayFile));
+        } catch (java.io.IOException e) {
+            System.err.println("Cannot open recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Plays TRAINING_TURNS turns against an in-process StandInServer and
+     * exits. Runs the same startup path as a real match (bot API, WebSocket
+     * client, JSON, HUD unless headless), so a JVM started with
+     * -XX:ArchiveClassesAtExit archives the classes a real start loads.
+     */
+    static void train(LaunchOptions options) {
+        try (StandInServer server = new StandInServer(TRAINING_ENEMIES)) {
+            LaunchOptions o = withServer(options.copy(), server.url(), "training");
+            Thread bot = new Thread(() -> new PlayerBot(o).start(), "PlayerBot training");
+            bot.setDaemon(true);
+            bot.start();
+            server.accept(30_000);
+            for (int turn = 1; turn <= TRAINING_TURNS; turn++)
+                if (server.turn(turn) < 0)
+                    throw new java.io.IOException("Bot disconnected at turn " + turn);
+        } catch (java.io.IOException e) {
+            System.err.println("Training run failed: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0); // also closes the HUD window, if any
     }
 
-    /** Map: enemyId → tracking info. */
-    private final ConcurrentHashMap<Integer, EnemyInfo> enemies = new ConcurrentHashMap<>();
+    // ── constructor ────────────────────────────────────────────────────
+    public PlayerBot(String serverUrl, String serverSecret) {
+        this(withServer(new LaunchOptions(), serverUrl, serverSecret));
+    }
+
+    public PlayerBot(LaunchOptions options) {
+        this(options, null);
+    }
 
-    // Current headings for our own bot
-    private volatile double botHeading = 0;
-    private volatile double gunHeading = 0;
+    /**
+     * Bot named {@code name} in the game and on its HUD window, one of several
+     * in this JVM (see BotPool): closing its window leaves the others running.
+     * A null name is the single bot of PlayerBot.json.
+     */
+    PlayerBot(LaunchOptions options, String name) {
+        this(options, name, null);
+    }
 
-    // ── entrypoint ─────────────────────────────────────────────────────
-    public static void main(String[] args) {
-        if (args.length < 2) {
-            System.err.println("Usage: PlayerBot <server-url> <server-secret>");
+    /**
+     * Bot for the next connection of a resident bot (WarmLauncher). It takes
+     * over the HUD window or HUD log, render thread, keys, settings, profiler,
+     * event ring and logs of {@code previous}, whose connection has closed;
+     * only the connection and the per-game state are new.
+     */
+    PlayerBot(LaunchOptions options, String name, PlayerBot previous) {
+        super(botInfo(name), URI.create(options.serverUrl), options.serverSecret);
+        label = name != null ? name : "PlayerBot";
+        resident = options.persistent;
+        gameRecordFile = resident ? options.recordFile : null;
+        if (previous != null) {
+            keys = previous.keys;
+            settings = previous.settings;
+            hud = previous.hud;
+            script = previous.script;
+            hudLog = previous.hudLog;
+            profiler = previous.profiler;
+            profilerHook = previous.profilerHook;
+            events = previous.events;
+            eventLog = previous.eventLog;
+            eventLogHook = previous.eventLogHook;
+            trails = previous.trails;
+            frameTrails = previous.frameTrails;
+            games = previous.games;
+            renderScheduler = previous.renderScheduler;
+            if (renderScheduler != null)
+                renderScheduler.renderer(hudLog != null ? this::logHud : this::renderHud);
+            startup.mark(StartupTimer.BUILT);
             return;
         }
-        new PlayerBot(args[0], args[1]).start();
-    }
-
-    // ── static initialisation of main window ───────────────────────────
-    static {
-        // Global key hook
-        KeyboardFocusManager.getCurrentKeyboardFocusManager()
-                .addKeyEventDispatcher(PlayerBot::dispatch);
-
-        infoFrame = new Frame("PlayerBot HUD");
-        infoFrame.setLayout(new BorderLayout());
-
-        Label controls = new Label(
-                "W/Up: forward  S/Down: back  A/Left: turn left  D/Right: turn right   " +
-                        "Q: gun left  E: gun right  R: center gun   Shift+Space: high fire  Space: fire");
-        expAverageBox = new Checkbox("Exponential averaging", true);
-        alphaSlider = new Scrollbar(Scrollbar.HORIZONTAL, (int) (angleAlpha * 100), 1, 1, 101);
-        alphaSlider.setPreferredSize(new Dimension(150, 20)); // Smaller width
-        alphaLabel = new Label(String.format("\u03B1: %.2f", angleAlpha));
-
-        // Update alpha value
-        alphaSlider.addAdjustmentListener(e -> {
-            angleAlpha = alphaSlider.getValue() / 100.0;
-            alphaLabel.setText(String.format("\u03B1: %.2f", angleAlpha));
-        });
-
-        Panel eastPanel = new Panel(new FlowLayout());
-        eastPanel.add(expAverageBox);
-        eastPanel.add(alphaLabel);
-        eastPanel.add(alphaSlider);
-
-        Panel northPanel = new Panel(new BorderLayout());
-        northPanel.add(controls, BorderLayout.CENTER);
-        northPanel.add(eastPanel, BorderLayout.EAST);
-        infoArea = new TextArea("", 30, 40, TextArea.SCROLLBARS_VERTICAL_ONLY);
-        infoArea.setEditable(false);
-
-        eventArea = new TextArea("", 5, 40, TextArea.SCROLLBARS_VERTICAL_ONLY);
-        eventArea.setEditable(false);
-
-        infoFrame.add(northPanel, BorderLayout.NORTH);
-
-        Panel southPanel = new Panel(new BorderLayout());
-        southPanel.add(eventArea, BorderLayout.NORTH);
-        southPanel.add(infoArea, BorderLayout.CENTER);
-        infoFrame.add(southPanel, BorderLayout.SOUTH); // text below the compass
-        infoFrame.setSize(1200, 800); // extra height for compass
-        infoFrame.setAlwaysOnTop(true);
-        infoFrame.addWindowListener(new WindowAdapter() {
-            @Override
-            public void windowClosing(WindowEvent e) {
-                System.exit(0);
-            }
-        });
-        infoFrame.setVisible(true);
+
+        keys = new KeyState();
+        events = new EventRing(EVENT_CAPACITY);
+        trails = new TrailStore();
+        frameTrails = new TrailStore();
+        try {
+            script = options.scriptFile != null ? ScriptedInput.load(java.nio.file.Paths.get(options.scriptFile))
+                    : null;
+            hudLog = !options.headless || options.hudLog == null ? null
+                    : options.hudLog.equals("-") ? System.out
+                            : new java.io.PrintStream(new java.io.FileOutputStream(options.hudLog), true, "UTF-8");
+            profiler = new TurnProfiler(options.latencyCsv != null ? java.nio.file.Paths.get(options.latencyCsv)
+                    : null, label);
+            if (options.recordFile != null && !resident)
+                openRecorder(options.recordFile);
+            eventLog = options.eventLog != null ? new EventLog(events, java.nio.file.Paths.get(options.eventLog))
+                    : null;
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+
+        settings = BotSettings.from(options);
+        if (options.headless) {
+            hud = null;
+            renderScheduler = hudLog != null
+                    ? new RenderScheduler("PlayerBot HUD log", HUD_LOG_FPS, MAX_EVENTS, this::logHud)
+                    : null;
+        } else {
+            String title = label + " HUD";
+            boolean exitOnClose = name == null;
+            if (options.fastStart)
+                hudBuild = () -> buildHud(title, exitOnClose); // AWT start-up after the first intent
+            else
+                hud = new HudWindow(title, settings, hudKeys(), exitOnClose);
+            renderScheduler = new RenderScheduler("PlayerBot HUD", HUD_FPS, MAX_EVENTS, this::renderHud);
+        }
+        if (renderScheduler != null)
+            renderScheduler.start();
+        eventLogHook = eventLog != null ? new Thread(eventLog::close, "PlayerBot event log close") : null;
+        if (eventLogHook != null)
+            Runtime.getRuntime().addShutdownHook(eventLogHook);
+        profilerHook = options.latencyCsv != null ? new Thread(profiler::close, "PlayerBot latency CSV close") : null;
+        if (profilerHook != null)
+            Runtime.getRuntime().addShutdownHook(profilerHook);
+        startup.mark(StartupTimer.BUILT);
     }
 
-    // ── constructor ────────────────────────────────────────────────────
-    public PlayerBot(String serverUrl, String serverSecret) {
-        super(BotInfo.fromResourceFile("/PlayerBot.json"), URI.create(serverUrl), serverSecret);
-        // Add compass panel once the bot is constructed (static block already ran)
-        infoFrame.add(compassPanel, BorderLayout.CENTER);
-        infoFrame.validate();
+    /** Opens the recording {@code file}, to be closed at game end or, failing that, on exit. */
+    private void openRecorder(String file) throws java.io.IOException {
+        recorder = new MatchRecorder(java.nio.file.Paths.get(file));
+        recorderHook = new Thread(recorder::close, "PlayerBot recorder close");
+        Runtime.getRuntime().addShutdownHook(recorderHook);
+    }
+
+    /** Closes the recording and drops its exit hook, which would otherwise keep it reachable until exit. */
+    private void closeRecorder() {
+        recorder.close();
+        removeHook(recorderHook);
+        recorder = null;
+        recorderHook = null;
+    }
+
+    private static void removeHook(Thread hook) {
+        try {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        } catch (IllegalStateException e) {
+            // the JVM is exiting; the hook runs anyway and close() is idempotent
+        }
+    }
+
+    private static BotInfo botInfo(String name) {
+        BotInfo info = BotInfo.fromResourceFile("/PlayerBot.json");
+        return name == null ? info : BotInfo.builder().copy(info).setName(name).build();
+    }
+
+    private static LaunchOptions withServer(LaunchOptions o, String serverUrl, String serverSecret) {
+        o.serverUrl = serverUrl;
+        o.serverSecret = serverSecret;
+        return o;
     }
 
     // ── main loop ──────────────────────────────────────────────────────
@@ -178,71 +360,246 @@ public class PlayerBot extends Bot {
         setRadarColor(dev.robocode.tankroyale.botapi.graphics.Color.GREEN_YELLOW);
         setBulletColor(dev.robocode.tankroyale.botapi.graphics.Color.RED);
         setScanColor(dev.robocode.tankroyale.botapi.graphics.Color.PINK);
-        turnRadarLeft(360); // initial sweep to ensure a scan event
+        if (settings.radarMode == RadarScheduler.OFF)
+            turnRadarLeft(360); // initial sweep to ensure a scan event; the scheduler searches by itself
+        startup.mark(StartupTimer.FIRST_TURN);
+        TurnProfiler p = profiler;
         while (isRunning()) {
+            p.beginTurn(getRoundNumber(), getTurnNumber(), enemies.count());
+            if (FlightRecording.on)
+                keys.context(getTurnNumber(), enemies.count());
+            if (script != null)
+                script.apply(getTurnNumber(), keys);
+            keys.beginTurn(); // pick up key edges queued since the last turn
+            p.mark(TurnProfiler.INPUT);
+            enemies.track(filters, getRoundNumber(), getTurnNumber(), getX(), getY(), getArenaWidth(),
+                    getArenaHeight(), settings.kalman);
+            waves.advance(getTurnNumber(), getX(), getY());
+            trails.add(TrailStore.SELF, getX(), getY());
+            p.mark(TurnProfiler.TRACK);
+            if (settings.aimAssist)
+                aim.solve(enemies, getTurnNumber(), getX(), getY(), getArenaWidth(), getArenaHeight());
+            p.mark(TurnProfiler.AIM);
+            steerRadar();
+            p.mark(TurnProfiler.RADAR);
             handleMovement();
+            p.mark(TurnProfiler.MOVEMENT);
             handleGun();
+            p.mark(TurnProfiler.GUN);
             handleFire();
+            p.mark(TurnProfiler.FIRE);
+            MatchRecorder r = recorder; // game end may clear it
+            if (r != null)
+                recordTurn(r);
+            p.mark(TurnProfiler.RECORD);
             updateHud();
-            for (EnemyInfo ei : enemies.values())
-                ei.sinceLastScan++;
+            p.mark(TurnProfiler.HUD);
+            if (firstIntent)
+                startup.mark(StartupTimer.FIRST_INTENT); // go() sends it straight away
             go();
+            p.mark(TurnProfiler.GO);
+            if (firstIntent)
+                afterFirstIntent();
         }
     }
 
+    /** Reports the startup times and, with --fast-start, builds the HUD window, both on a thread of their own. */
+    private void afterFirstIntent() {
+        firstIntent = false;
+        Runnable build = hudBuild;
+        hudBuild = null;
+        Thread t = new Thread(() -> {
+            System.out.println(startup.report(label));
+            if (build != null)
+                build.run();
+        }, label + " startup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** The keys the HUD window feeds: none when a script drives them, KeyState taking a single producer. */
+    private KeyState hudKeys() {
+        return script != null ? null : keys;
+    }
+
+    /** --fast-start: builds and shows the HUD window; the render thread picks it up from then on. */
+    private void buildHud(String title, boolean exitOnClose) {
+        hud = new HudWindow(title, settings, hudKeys(), exitOnClose);
+        startup.mark(StartupTimer.HUD);
+        System.out.println(startup.hudReport(label));
+    }
+
     // ── event handler ──────────────────────────────────────────────────
     @Override
-    public void onScannedBot(ScannedBotEvent e) {
-        EnemyInfo info = enemies.computeIfAbsent(e.getScannedBotId(), k -> new EnemyInfo());
-        info.event = e;
-        double rawAngleDeg = getRadarDirection();
-
-        // Convert bearing to unit vector (cos θ, sin θ)
-        double rad = Math.toRadians(rawAngleDeg);
-        double x = Math.cos(rad);
-        double y = Math.sin(rad);
-
-        if (expAverageBox.getState()) {
-            if (!info.initialized) {
-                // First observation – initialise values directly
-                info.sx = x;
-                info.sy = y;
-                info.initialized = true;
-            } else {
-                // Exponential moving average for circular data
-                info.sx = (1 - angleAlpha) * info.sx + angleAlpha * x;
-                info.sy = (1 - angleAlpha) * info.sy + angleAlpha * y;
-            }
+    public void onConnected(dev.robocode.tankroyale.botapi.events.ConnectedEvent e) {
+        startup.mark(StartupTimer.CONNECTED);
+        super.onConnected(e);
+    }
 
-            // Derive smoothed angle from averaged vector
-            info.angle = Math.toDegrees(Math.atan2(info.sy, info.sx));
-            if (info.angle < 0)
-                info.angle += 360; // keep in [0,360)
-        } else {
-            // No averaging - just use last scanned bearing
-            info.sx = x;
-            info.sy = y;
-            info.angle = rawAngleDeg >= 0 ? rawAngleDeg : rawAngleDeg + 360;
-            info.initialized = true;
+    @Override
+    public void onGameStarted(dev.robocode.tankroyale.botapi.events.GameStartedEvent e) {
+        // the bot API has just sent BotReady
+        startup.readyTimeout(e.getGameSetup().getReadyTimeout());
+        startup.mark(StartupTimer.READY);
+        newGame();
+    }
+
+    /**
+     * Forgets the previous game on this connection, which a resident bot
+     * keeps between games: enemies, filters, waves, trails, the event list and
+     * the fire cooldown. A resident bot with --record also starts the next
+     * recording here. Runs on the connection thread while no turn loop does.
+     */
+    private void newGame() {
+        games++;
+        enemies.clear();
+        filters.clear();
+        waves.newRound();
+        trails.clear();
+        if (eventLog != null)
+            eventLog.catchUp(); // a resident bot's log runs on; let it write the last game's tail first
+        events.clear();
+        fireCooldown = 0;
+        queuedShots = 0;
+        firePower = 0;
+        appliedRadarMode = -1;
+        if (gameRecordFile != null) {
+            if (recorder != null)
+                closeRecorder(); // the last game did not end, e.g. the server aborted it
+            try {
+                openRecorder(BotPool.suffixed(gameRecordFile, games));
+            } catch (java.io.IOException ex) {
+                recorder = null;
+                System.err.println("Recording not started: " + ex.getMessage());
+            }
         }
+    }
+
+    @Override
+    public void onScannedBot(ScannedBotEvent e) {
+        FlightRecording.Scan jfr = FlightRecording.on ? FlightRecording.Scan.start() : null;
+        int id = e.getScannedBotId();
+        filters.update(id, getRoundNumber(), getTurnNumber(), e.getX(), e.getY(), e.getDirection(), e.getSpeed());
+        boolean k = settings.kalman;
+        // Kalman: exact bearing to the scanned position; legacy: where the radar pointed
+        double bearing = k ? AngleMath.atan2Deg(e.getY() - getY(), e.getX() - getX())
+                : getRadarDirection();
+        enemies.scan(id, getTurnNumber(), e.getX(), e.getY(), e.getEnergy(), e.getDirection(),
+                e.getSpeed(), bearing, settings.expAverage && !k, settings.angleAlpha);
+        waves.scan(id, getTurnNumber(), e.getEnergy(), e.getX(), e.getY(), e.getSpeed(), getArenaWidth(),
+                getArenaHeight());
+        trails.add(id, e.getX(), e.getY());
+        MatchRecorder r = recorder;
+        if (r != null)
+            r.scan(getRoundNumber(), getTurnNumber(), id, e.getX(), e.getY(), e.getEnergy(),
+                    e.getDirection(), e.getSpeed(), enemies.angle(id));
+        if (jfr != null)
+            jfr.end(label, getTurnNumber(), enemies.count(), id);
+    }
 
-        info.sinceLastScan = 0; // reset scan timer
+    @Override
+    public void onBotDeath(dev.robocode.tankroyale.botapi.events.BotDeathEvent e) {
+        enemies.died(e.getVictimId()); // no longer worth sweeping for
+        events.add(EventRing.BOT_DEATH, getRoundNumber(), getTurnNumber(), e.getVictimId(), 0, 0);
+        MatchRecorder r = recorder;
+        if (r != null)
+            r.death(getRoundNumber(), getTurnNumber(), e.getVictimId());
     }
 
     @Override
     public void onHitWall(dev.robocode.tankroyale.botapi.events.HitWallEvent e) {
-        logEvent("You hit a wall!");
+        events.add(EventRing.HIT_WALL, getRoundNumber(), getTurnNumber());
+        MatchRecorder r = recorder;
+        if (r != null)
+            r.hitWall(getRoundNumber(), getTurnNumber());
     }
 
     @Override
     public void onHitByBullet(dev.robocode.tankroyale.botapi.events.HitByBulletEvent e) {
         double ang = e.getBullet().getDirection();
-        logEvent(String.format("You were hit by a bullet at %.1f\u00b0!", ang));
+        waves.hitUs(e.getBullet().getOwnerId(), e.getBullet().getPower());
+        events.add(EventRing.HIT_BY_BULLET, getRoundNumber(), getTurnNumber(), e.getBullet().getOwnerId(), ang,
+                e.getBullet().getPower());
+        MatchRecorder r = recorder;
+        if (r != null)
+            r.hitByBullet(getRoundNumber(), getTurnNumber(), ang, e.getBullet().getPower(), e.getEnergy());
     }
 
     @Override
     public void onRoundStarted(dev.robocode.tankroyale.botapi.events.RoundStartedEvent e) {
-        logEvent(String.format("New round %d started!", e.getRoundNumber()));
+        enemies.newRound();
+        waves.newRound();
+        trails.clear();
+        // runs on the connection thread, but only between rounds, while no turn loop writes events
+        events.add(EventRing.ROUND_STARTED, e.getRoundNumber(), 0);
+        MatchRecorder r = recorder;
+        if (r != null)
+            r.round(e.getRoundNumber(), getNumberOfRounds(), getArenaWidth(), getArenaHeight());
+    }
+
+    @Override
+    public void onRoundEnded(dev.robocode.tankroyale.botapi.events.RoundEndedEvent e) {
+        if (FlightRecording.on)
+            FlightRecording.dump(); // on its own thread
+    }
+
+    @Override
+    public void onHitBot(dev.robocode.tankroyale.botapi.events.HitBotEvent e) {
+        waves.rammed(e.getVictimId());
+        events.add(EventRing.HIT_BOT, getRoundNumber(), getTurnNumber(), e.getVictimId(), e.isRammed() ? 1 : 0, 0);
+    }
+
+    @Override
+    public void onBulletFired(dev.robocode.tankroyale.botapi.events.BulletFiredEvent e) {
+        events.add(EventRing.FIRED, getRoundNumber(), getTurnNumber(), -1, e.getBullet().getPower(), 0);
+    }
+
+    @Override
+    public void onBulletHit(dev.robocode.tankroyale.botapi.events.BulletHitBotEvent e) {
+        waves.damaged(e.getVictimId(), e.getDamage());
+        events.add(EventRing.BULLET_HIT, getRoundNumber(), getTurnNumber(), e.getVictimId(), e.getDamage(), 0);
+    }
+
+    @Override
+    public void onBulletHitWall(dev.robocode.tankroyale.botapi.events.BulletHitWallEvent e) {
+        events.add(EventRing.BULLET_MISSED, getRoundNumber(), getTurnNumber());
+    }
+
+    @Override
+    public void onBulletHitBullet(dev.robocode.tankroyale.botapi.events.BulletHitBulletEvent e) {
+        events.add(EventRing.BULLET_HIT_BULLET, getRoundNumber(), getTurnNumber(), e.getHitBullet().getOwnerId(), 0,
+                0);
+    }
+
+    @Override
+    public void onDeath(dev.robocode.tankroyale.botapi.events.DeathEvent e) {
+        events.add(EventRing.DEATH, getRoundNumber(), getTurnNumber());
+    }
+
+    @Override
+    public void onWonRound(dev.robocode.tankroyale.botapi.events.WonRoundEvent e) {
+        events.add(EventRing.WON_ROUND, getRoundNumber(), getTurnNumber());
+    }
+
+    @Override
+    public void onSkippedTurn(dev.robocode.tankroyale.botapi.events.SkippedTurnEvent e) {
+        events.add(EventRing.SKIPPED_TURN, getRoundNumber(), e.getTurnNumber());
+    }
+
+    @Override
+    public void onGameEnded(dev.robocode.tankroyale.botapi.events.GameEndedEvent e) {
+        if (recorder != null)
+            closeRecorder();
+        if (eventLog != null && !resident) { // a resident bot appends the next games to it
+            eventLog.close();
+            removeHook(eventLogHook);
+        }
+        if (resident) {
+            profiler.flush(); // the game's last rows; the next games append to the same CSV
+        } else if (profilerHook != null) {
+            profiler.close();
+            removeHook(profilerHook);
+        }
     }
 
     // ── controls ───────────────────────────────────────────────────────
@@ -277,184 +634,234 @@ public class PlayerBot extends Bot {
         else if (key(KeyEvent.VK_E))
             setTurnGunRight(2.5);
         else if (key(KeyEvent.VK_R))
-            setTurnGunRight(normalizeRelative(getGunDirection() - getDirection()));
+            setTurnGunRight(AngleMath.normalizeRelative(getGunDirection() - getDirection()));
+        else if (key(KeyEvent.VK_F) && settings.aimAssist && aim.target(aimPower()) >= 0)
+            setTurnGunLeft(AngleMath.normalizeRelative(aim.angle(aimPower()) - getGunDirection()));
         else
             setTurnGunRight(0);
     }
 
+    /** Points the radar where the scheduler wants it; OFF leaves it to the gun and body, as before. */
+    private void steerRadar() {
+        int mode = settings.radarMode;
+        double turn = radar.plan(mode, enemies, getRoundNumber(), getTurnNumber(), getX(), getY(),
+                getRadarDirection(), getEnemyCount(), settings.aimAssist ? aim.target(aimPower()) : -1);
+        boolean free = mode != RadarScheduler.OFF;
+        setAdjustRadarForBodyTurn(free);
+        setAdjustRadarForGunTurn(free);
+        if (free)
+            setRadarTurnRate(turn);
+        else if (appliedRadarMode != mode)
+            setRadarTurnRate(0); // stop the sweep that was in progress
+        appliedRadarMode = mode;
+    }
+
+    /** Solution to follow: the one for the shot Space would fire right now. */
+    private int aimPower() {
+        return key(KeyEvent.VK_SHIFT) ? AimAssist.HIGH : AimAssist.LOW;
+    }
+
+    /**
+     * Fires while SPACE (SHIFT+SPACE: heavy) or ENTER is held. Every press
+     * edge also queues a shot, up to MAX_QUEUED_SHOTS, so a tap during the
+     * cooldown or while the gun is hot fires as soon as it can.
+     */
     private void handleFire() {
+        firePower = 0;
+        boolean shift = key(KeyEvent.VK_SHIFT);
+        int spaceTaps = keys.presses(KeyEvent.VK_SPACE);
+        int taps = spaceTaps + keys.presses(KeyEvent.VK_ENTER);
+        if (taps > 0) {
+            queuedShots = Math.min(MAX_QUEUED_SHOTS, queuedShots + taps);
+            queuedPower = spaceTaps > 0 && shift ? 3.0 : 1.8;
+        }
         if (fireCooldown > 0) {
             fireCooldown--;
             return;
         }
-        boolean space = key(KeyEvent.VK_SPACE);
-        boolean enter = key(KeyEvent.VK_ENTER);
-        boolean shift = key(KeyEvent.VK_SHIFT);
-
-        if (space && shift && getGunHeat() == 0) {
-            fire(3.0);
-            fireCooldown = KEY_FIRE_DELAY;
-        } else if ((space || enter) && getGunHeat() == 0) {
-            fire(1.8);
+        if (getGunHeat() > 0)
+            return;
+        boolean space = keys.isDown(KeyEvent.VK_SPACE);
+        boolean enter = keys.isDown(KeyEvent.VK_ENTER);
+        double power = space && shift ? 3.0 : space || enter ? 1.8 : 0;
+        if (queuedShots > 0) { // a held key fires the queued tap too, not one more
+            queuedShots--;
+            if (power == 0)
+                power = queuedPower;
+        }
+        if (power > 0) {
+            fire(power);
+            firePower = power;
             fireCooldown = KEY_FIRE_DELAY;
         }
     }
 
+    // ── recording ──────────────────────────────────────────────────────
+    /** Closes this turn in the recording: the same state updateHud publishes, plus keys and fire. */
+    private void recordTurn(MatchRecorder recorder) {
+        recorder.turn(getRoundNumber(), getTurnNumber(), getEnergy(), getX(), getY(), getDirection(),
+                getGunDirection(), getRadarDirection(), getGunHeat(), getSpeed(), ScriptedInput.keyMask(keys),
+                firePower);
+    }
+
     // ── HUD update ─────────────────────────────────────────────────────
+    /** Publishes this turn's HUD snapshot; never waits for the render thread. */
     private void updateHud() {
-        botHeading = getDirection();
-        gunHeading = getGunDirection();
-        // compass refresh
-        compassPanel.repaint();
-
-        String stats = String.format(
-                "Round: %d / %d\nTurn: %d\nEnergy: %.1f\nX: %.1f / %d\nY: %.1f / %d\nHeading: %.1f\nGun Heading: %.1f\nRadar Heading: %.1f\nGun Heat: %.1f\nSpeed: %.1f",
-                getRoundNumber(), getNumberOfRounds(), getTurnNumber(), getEnergy(), getX(), getArenaWidth(),
-                getY(), getArenaHeight(), botHeading, gunHeading, getRadarDirection(), getGunHeat(), getSpeed());
-
-        StringBuilder sb = new StringBuilder(stats).append("\n\nVisibility\n");
-        if (enemies.isEmpty()) {
-            sb.append("No enemy scanned");
-        } else {
-            for (java.util.Map.Entry<Integer, EnemyInfo> entry : enemies.entrySet()) {
-                EnemyInfo ei = entry.getValue();
-                ScannedBotEvent ev = ei.event;
-                sb.append(String.format(
-                        "Angle: %.1f\nEnemy ID: %d\nEnemy X: %.1f\nEnemy Y: %.1f\nEnemy Energy: %.1f\nEnemy Direction: %.1f\nEnemy Speed: %.1f\n\n",
-                        ei.angle, entry.getKey(), ev.getX(), ev.getY(), ev.getEnergy(), ev.getDirection(),
-                        ev.getSpeed()));
-            }
+        if (renderScheduler == null)
+            return; // headless, HUD off
+        HudSnapshot s = renderScheduler.beginPublish();
+        s.round = getRoundNumber();
+        s.rounds = getNumberOfRounds();
+        s.turn = getTurnNumber();
+        s.arenaWidth = getArenaWidth();
+        s.arenaHeight = getArenaHeight();
+        s.energy = getEnergy();
+        s.x = getX();
+        s.y = getY();
+        s.heading = getDirection();
+        s.gunHeading = getGunDirection();
+        s.radarHeading = getRadarDirection();
+        s.gunHeat = getGunHeat();
+        s.speed = getSpeed();
+        s.keys = ScriptedInput.keyMask(keys);
+        s.keyEdgesDropped = keys.droppedEdges();
+        boolean aimOn = settings.aimAssist;
+        s.aimOn = aimOn;
+        int power = aimPower();
+        s.aimTarget = aimOn ? aim.target(power) : -1;
+        s.aimAngle = aim.angle(power);
+        s.aimFlight = aim.flight(power);
+        s.aimCircular = aim.circular(power);
+        s.radarMode = settings.radarMode;
+        s.radarTarget = radar.target();
+        s.staleAvg = radar.staleAvg();
+        s.staleMax = radar.staleMax();
+        s.roundStaleAvg = radar.roundStaleAvg();
+        s.roundStaleMax = radar.roundStaleMax();
+        s.unseen = radar.unseen();
+        s.waves = waves.count();
+        int threats = waves.threats();
+        s.threats = threats;
+        for (int k = 0; k < threats; k++) {
+            s.threatShooter[k] = waves.threatShooter(k);
+            s.threatBearing[k] = waves.threatBearing(k);
+            s.threatTurns[k] = waves.threatTurns(k);
+            s.threatPower[k] = waves.threatPower(k);
         }
-
-        infoArea.setText(sb.toString());
-
-        StringBuilder evSb = new StringBuilder();
-        for (String ev : eventLog)
-            evSb.append(ev).append('\n');
-        eventArea.setText(evSb.toString());
+        profiler.summaryInto(s.latency);
+        s.skippedTurns = profiler.skippedTurns();
+        s.events.copyFrom(events); // only when new events came in
+        renderScheduler.endPublish();
     }
 
-    // ── compass panel ──────────────────────────────────────────────────
-    private class CompassPanel extends Canvas {
-        private Image bufferImage;
-        private Graphics2D bufferGraphics;
+    /** Draws one HUD frame from a snapshot copy. Render thread only. */
+    private boolean renderHud(HudSnapshot f) {
+        HudWindow w = hud;
+        if (w == null)
+            return true; // --fast-start: not built yet
+        EnemyTracker en = frameEnemies;
+        if (!enemies.readInto(en) || !trails.readInto(frameTrails))
+            return false; // torn copy; the scheduler retries this frame, copying in full
+        w.compassPanel.render(f, en);
+        w.minimapPanel.render(f, en, frameTrails);
+
+        FlightRecording.HudText jfr = FlightRecording.on ? FlightRecording.HudText.start() : null;
+        HudText t = hudText;
+        t.renderFrames(renderScheduler.framesRendered(), renderScheduler.framesDropped());
+        t.frame(f, en);
+
+        // Only touch the TextAreas when their text actually changed
+        String info = t.takeInfoText();
+        if (info != null)
+            w.infoArea.setText(info);
+        String events = t.takeEventText();
+        if (events != null)
+            w.eventArea.setText(events);
+        if (jfr != null)
+            jfr.end(label, f.turn, en.count(), info != null, events != null);
+        return true;
+    }
 
-        CompassPanel() {
-            setPreferredSize(new Dimension(300, 300));
-            setBackground(Color.BLACK);
+    /** Writes one compact HUD line (plus any new events) in headless mode. Render thread only. */
+    private boolean logHud(HudSnapshot f) {
+        EnemyTracker en = frameEnemies;
+        if (!enemies.readInto(en))
+            return false; // torn copy; the scheduler retries this line
+
+        StringBuilder sb = hudLogLine;
+        sb.setLength(0);
+        sb.append('r').append(f.round).append(" t").append(f.turn)
+                .append(" e=").append(Math.round(f.energy * 10) / 10.0)
+                .append(" x=").append(Math.round(f.x)).append(" y=").append(Math.round(f.y))
+                .append(" h=").append(Math.round(f.heading)).append(" g=").append(Math.round(f.gunHeading))
+                .append(" v=").append(f.speed).append(" enemies=").append(en.count())
+                .append(" work99=").append(f.latency[TurnProfiler.WORK * TurnProfiler.SUMMARY_WIDTH + 1] / 1000)
+                .append("us skipped=").append(f.skippedTurns)
+                .append(" stale=").append(Math.round(f.staleAvg * 10) / 10.0).append('/').append(f.staleMax)
+                .append(" waves=").append(f.waves);
+        if (f.keyEdgesDropped > 0)
+            sb.append(" keyedgeslost=").append(f.keyEdgesDropped);
+        if (f.threats > 0)
+            sb.append(" nearest=#").append(f.threatShooter[0]).append('@')
+                    .append(Math.round(f.threatTurns[0] * 10) / 10.0).append('t');
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            sb.append(" #").append(id).append('@').append(Math.round(en.angle(id)));
         }
+        hudLog.println(sb);
 
-        @Override
-        public void update(Graphics g) {
-            paint(g); // Avoid default clear flicker
+        // Print the events added since the last line, as far as the snapshot still holds them
+        EventRing ev = f.events;
+        if (ev.clears() != hudLogClears) { // a new game cleared the ring
+            hudLogClears = ev.clears();
+            hudLogEvents = 0;
         }
-
-        @Override
-        public void paint(Graphics g) {
-            int w = getWidth(), h = getHeight();
-
-            // Create buffer if needed
-            if (bufferImage == null || bufferImage.getWidth(null) != w || bufferImage.getHeight(null) != h) {
-                bufferImage = createImage(w, h);
-                bufferGraphics = (Graphics2D) bufferImage.getGraphics();
-                bufferGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            }
-
-            // Clear buffer
-            bufferGraphics.setColor(getBackground());
-            bufferGraphics.fillRect(0, 0, w, h);
-
-            // Draw compass
-            int size = Math.min(w, h) - 40;
-            int r = size / 2;
-            int cx = w / 2, cy = h / 2;
-
-            bufferGraphics.setColor(Color.LIGHT_GRAY);
-            bufferGraphics.drawOval(cx - r, cy - r, size, size);
-            bufferGraphics.drawString("0°", cx + r + 5, cy + 5);
-            bufferGraphics.drawString("90°", cx - 10, cy - r - 5);
-            bufferGraphics.drawString("180°", cx - r - 25, cy + 15);
-            bufferGraphics.drawString("270°", cx - 15, cy + r + 15);
-
-            // Own headings
-            drawDot(bufferGraphics, Color.GREEN, botHeading, r - 50, null);
-            drawDot(bufferGraphics, Color.BLUE, gunHeading, r - 30, null);
-
-            // Enemies
-            for (java.util.Map.Entry<Integer, EnemyInfo> entry : enemies.entrySet()) {
-                EnemyInfo ei = entry.getValue();
-                Color c = ei.sinceLastScan > 30 * 2 ? Color.YELLOW : Color.RED;
-                drawDot(bufferGraphics, c, ei.angle, r - 10, Integer.toString(entry.getKey()));
-            }
-
-            // Energy bars
-            int barHeight = 12;
-            int barWidth = (w / 2) - 40;
-            int barY = 10;
-
-            // Enemy energy (most recent)
-            ScannedBotEvent recent = null;
-            int best = Integer.MAX_VALUE;
-            for (EnemyInfo ei : enemies.values()) {
-                if (ei.sinceLastScan < best) {
-                    best = ei.sinceLastScan;
-                    recent = ei.event;
-                }
-            }
-            double enemyEnergy = recent != null ? recent.getEnergy() : 0.0;
-            double enemyRatio = Math.max(0, Math.min(1, enemyEnergy / 100.0));
-            bufferGraphics.setColor(Color.DARK_GRAY);
-            bufferGraphics.drawRect(20, barY, barWidth, barHeight);
-            bufferGraphics.setColor(Color.RED);
-            bufferGraphics.fillRect(20 + 1, barY + 1, (int) ((barWidth - 1) * enemyRatio), barHeight - 1);
-
-            // Player energy on the right
-            double myEnergy = getEnergy();
-            double myRatio = Math.max(0, Math.min(1, myEnergy / 100.0));
-            int rightX = w - barWidth - 20;
-            bufferGraphics.setColor(Color.DARK_GRAY);
-            bufferGraphics.drawRect(rightX, barY, barWidth, barHeight);
-            bufferGraphics.setColor(Color.GREEN);
-            bufferGraphics.fillRect(rightX + 1, barY + 1, (int) ((barWidth - 1) * myRatio), barHeight - 1);
-
-            // Draw final image
-            g.drawImage(bufferImage, 0, 0, null);
+        for (long s = Math.max(hudLogEvents, ev.oldest()); s < ev.written(); s++) {
+            HudText.CharBuf b = hudLogEvent;
+            b.len = 0;
+            ev.format(s, b);
+            sb.setLength(0);
+            sb.append("  event: ").append(b.chars, 0, b.len);
+            hudLog.println(sb);
         }
+        hudLogEvents = ev.written();
+        return true;
+    }
 
-        private void drawDot(Graphics2D g2, Color col, double angDeg, int radius, String label) {
-            double rad = Math.toRadians(angDeg);
-            int cx = getWidth() / 2, cy = getHeight() / 2;
-            int x = cx + (int) (radius * Math.cos(rad)); // 0° = right
-            int y = cy - (int) (radius * Math.sin(rad)); // 90° = up
-            g2.setColor(col);
-            g2.fillOval(x - 6, y - 6, 12, 12);
-            if (label != null) {
-                g2.setColor(Color.WHITE);
-                g2.drawString(label, x + 8, y);
-            }
+    // ── utility ─────────────────────────────────────────────────────────
+    /**
+     * Plays until the connection closes, then stops the render thread; the
+     * HUD window keeps its last frame. A resident bot calls start() instead,
+     * handing the thread on to the bot of the next connection.
+     */
+    void playConnection() {
+        try {
+            start();
+        } finally {
+            if (renderScheduler != null)
+                renderScheduler.stop();
         }
     }
 
-    // ── utility ─────────────────────────────────────────────────────────
-    private static boolean key(int kc) {
-        return keys.contains(kc);
+    /** This bot's key state, for input that does not come through a HUD window (WarmLauncher). */
+    KeyState keys() {
+        return keys;
     }
 
-    /** Ensures –180 < angle ≤ 180. */
-    private static double normalizeRelative(double a) {
-        while (a > 180)
-            a -= 360;
-        while (a <= -180)
-            a += 360;
-        return a;
+    /** Key held now or tapped since the last turn. */
+    private boolean key(int kc) {
+        return keys.active(kc);
     }
 
-    private static boolean dispatch(KeyEvent e) {
+    /** Feeds a key press or release into {@code keys}; AWT key dispatchers end here. */
+    static boolean dispatch(KeyState keys, KeyEvent e) {
         int code = e.getKeyCode();
-        if (e.getID() == KeyEvent.KEY_PRESSED)
-            keys.add(code);
-        else if (e.getID() == KeyEvent.KEY_RELEASED)
-            keys.remove(code);
+        boolean press = e.getID() == KeyEvent.KEY_PRESSED;
+        if (press || e.getID() == KeyEvent.KEY_RELEASED) {
+            boolean edge = press ? keys.press(code, System.nanoTime()) : keys.release(code, System.nanoTime());
+            if (FlightRecording.on)
+                FlightRecording.Key.emit(keys, code, press, edge);
+        }
         e.consume();
         return false;
     }
@@ -1,5 +1,5 @@
 #!/bin/sh
 # Compile the bot
-javac -cp lib/* PlayerBot.java
+javac -encoding UTF-8 -cp "lib/*" *.java
 # Run the bot
 java -cp lib/*:. PlayerBot
@@ -0,0 +1,238 @@
+/*
+ * Picks where the radar sweeps each turn.
+ *
+ * The radar turns at most 45° per turn and scans every bot inside the arc it
+ * swept, so the useful question each turn is which way to sweep and how far.
+ *
+ *   spin   blind 45°/turn rotation; the baseline to compare against
+ *   melee  turn toward the enemy whose scan is oldest, in the shorter
+ *          direction and just past its estimated bearing; everything in
+ *          between is refreshed on the way. Sweeping back and forth across
+ *          the enemies instead of around the empty part of the circle keeps
+ *          the worst staleness close to the time one pass across them takes.
+ *          That only pays while they fit in half the circle (two passes
+ *          across them are then shorter than one full turn); once they
+ *          surround us, melee spins like spin.
+ *   lock   keep one enemy inside every sweep by turning to just past its
+ *          bearing each turn: the aim-assist target if there is one, else
+ *          the enemy already locked, else the nearest. A lost lock sweeps
+ *          toward the last estimate at full speed.
+ *
+ * Melee and lock fall back to searching (spinning on in the current
+ * direction) while fewer enemies have been scanned this round than are
+ * alive, and when the enemy they are after has gone LOST_TURNS without a
+ * scan, i.e. it was not where its estimate said: a full turn of the radar
+ * finds it wherever it went. Bearings come from the EnemyTracker, i.e. the Kalman estimates when
+ * Kalman tracking is on, so sweeps aim at where enemies are now.
+ *
+ * Every turn, whatever the mode, the scheduler also measures the staleness
+ * (turns since the last scan) of the enemies seen this round: the average
+ * and maximum now, and the mean of the per-turn averages and the worst
+ * maximum over the round. Bot thread only; no allocation.
+ */
+final class RadarScheduler {
+
+    static final int OFF = 0, SPIN = 1, MELEE = 2, LOCK = 3;
+    static final String[] MODE_NAMES = { "off", "spin", "melee", "lock" };
+
+    static final double MAX_RATE = 45; // degrees per turn, the engine's limit
+    private static final double BOT_RADIUS = 18;
+    private static final double MIN_MARGIN = 3; // degrees past the bearing
+    private static final int LOCK_LOST_TURNS = 4;
+    private static final int LOST_TURNS = 16; // two full radar turns
+
+    private double direction = 1; // +1 = left (counter-clockwise)
+    private int lockId = -1;
+    private int target = -1;
+    private double[] bearings = new double[16]; // scratch for the widest gap
+
+    // ── staleness metric ───────────────────────────────────────────────
+    private int round = Integer.MIN_VALUE;
+    private int lastTurn;
+    private double staleAvg;
+    private int staleMax, unseen;
+    private double roundAvgSum;
+    private int roundTurns, roundMax;
+
+    /**
+     * Measures staleness and returns how far to turn the radar left this
+     * turn, in degrees (negative = right). {@code alive} is the number of
+     * enemies still in the round, or -1 if unknown; {@code preferred} is the
+     * enemy lock mode should hold if it can (-1 for none).
+     */
+    double plan(int mode, EnemyTracker en, int round, int turn, double ox, double oy, double radarDirection,
+            int alive, int preferred) {
+        int live = measure(en, round, turn, alive);
+        target = -1;
+        switch (mode) {
+            case SPIN:
+                return direction * MAX_RATE;
+            case MELEE:
+                if (live == 0 || live < alive)
+                    return direction * MAX_RATE; // someone has not been seen yet
+                int oldest = stalest(en, turn, radarDirection);
+                if (en.staleness(oldest, turn) > LOST_TURNS || widestGap(en) < 180)
+                    return direction * MAX_RATE;
+                return sweepTo(oldest, en, ox, oy, radarDirection);
+            case LOCK:
+                int id = lockTarget(en, preferred, ox, oy);
+                if (id < 0 || en.staleness(id, turn) > LOST_TURNS)
+                    return direction * MAX_RATE;
+                if (en.staleness(id, turn) > LOCK_LOST_TURNS) {
+                    double delta = AngleMath.normalizeRelative(en.angle(id) - radarDirection);
+                    direction = delta >= 0 ? 1 : -1;
+                    target = id;
+                    return direction * MAX_RATE;
+                }
+                return sweepTo(id, en, ox, oy, radarDirection);
+            default:
+                return 0;
+        }
+    }
+
+    /** Enemy the last plan() swept toward, or -1 (spinning, searching or off). */
+    int target() {
+        return target;
+    }
+
+    /** Turns the radar to just past {@code id}'s bearing, at most MAX_RATE. */
+    private double sweepTo(int id, EnemyTracker en, double ox, double oy, double radarDirection) {
+        target = id;
+        double delta = AngleMath.normalizeRelative(en.angle(id) - radarDirection);
+        double dir = delta > 0 ? 1 : delta < 0 ? -1 : direction;
+        double dx = en.estimatedX(id) - ox, dy = en.estimatedY(id) - oy;
+        double dist = Math.sqrt(dx * dx + dy * dy);
+        // half the bot's width as seen from here, plus a little for its move this turn
+        double margin = dist > BOT_RADIUS * 2
+                ? Math.max(MIN_MARGIN, Math.toDegrees(Math.atan(BOT_RADIUS * 2 / dist)))
+                : MAX_RATE;
+        direction = dir;
+        return Math.max(-MAX_RATE, Math.min(MAX_RATE, delta + dir * margin));
+    }
+
+    /** Oldest scan this round; ties go to the one further from the radar, so the sweep covers more. */
+    private static int stalest(EnemyTracker en, int turn, double radarDirection) {
+        int best = -1, bestStale = -1;
+        double bestDelta = -1;
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            if (en.lastScanTurn(id) == EnemyTracker.NEVER)
+                continue;
+            int stale = en.staleness(id, turn);
+            double delta = Math.abs(AngleMath.normalizeRelative(en.angle(id) - radarDirection));
+            if (stale > bestStale || stale == bestStale && delta > bestDelta) {
+                best = id;
+                bestStale = stale;
+                bestDelta = delta;
+            }
+        }
+        return best;
+    }
+
+    /** Widest empty arc between the bearings of the enemies seen this round, in degrees. */
+    private double widestGap(EnemyTracker en) {
+        if (bearings.length < en.count())
+            bearings = new double[Math.max(en.count(), bearings.length * 2)];
+        double[] b = bearings;
+        int n = 0;
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            if (en.lastScanTurn(id) == EnemyTracker.NEVER)
+                continue;
+            double a = en.angle(id);
+            int j = n++;
+            while (j > 0 && b[j - 1] > a) { // insertion sort: a handful of enemies
+                b[j] = b[j - 1];
+                j--;
+            }
+            b[j] = a;
+        }
+        if (n < 2)
+            return 360;
+        double gap = b[0] + 360 - b[n - 1];
+        for (int i = 1; i < n; i++)
+            gap = Math.max(gap, b[i] - b[i - 1]);
+        return gap;
+    }
+
+    private int lockTarget(EnemyTracker en, int preferred, double ox, double oy) {
+        if (preferred >= 0 && seen(en, preferred))
+            return lockId = preferred;
+        if (lockId >= 0 && seen(en, lockId))
+            return lockId;
+        lockId = -1;
+        double bestDist = Double.MAX_VALUE;
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            if (en.lastScanTurn(id) == EnemyTracker.NEVER)
+                continue;
+            double dx = en.estimatedX(id) - ox, dy = en.estimatedY(id) - oy;
+            double d = dx * dx + dy * dy;
+            if (d < bestDist) {
+                bestDist = d;
+                lockId = id;
+            }
+        }
+        return lockId;
+    }
+
+    private static boolean seen(EnemyTracker en, int id) {
+        return en.isTracked(id) && en.lastScanTurn(id) != EnemyTracker.NEVER;
+    }
+
+    // ── staleness metric ───────────────────────────────────────────────
+    /** Updates the staleness figures for {@code turn}; returns how many enemies were seen this round. */
+    int measure(EnemyTracker en, int round, int turn, int alive) {
+        if (round != this.round || turn < lastTurn) { // new round, or a replay seeking back
+            this.round = round;
+            roundAvgSum = 0;
+            roundTurns = 0;
+            roundMax = 0;
+            lockId = -1;
+        }
+        lastTurn = turn;
+        int live = 0, max = 0;
+        long sum = 0;
+        for (int i = 0; i < en.count(); i++) {
+            int id = en.idAt(i);
+            if (en.lastScanTurn(id) == EnemyTracker.NEVER)
+                continue;
+            int stale = Math.max(0, en.staleness(id, turn));
+            live++;
+            sum += stale;
+            max = Math.max(max, stale);
+        }
+        staleAvg = live > 0 ? (double) sum / live : 0;
+        staleMax = max;
+        unseen = Math.max(0, alive - live);
+        if (live > 0) {
+            roundAvgSum += staleAvg;
+            roundTurns++;
+            roundMax = Math.max(roundMax, max);
+        }
+        return live;
+    }
+
+    /** Average turns since the last scan over the enemies seen this round. */
+    double staleAvg() {
+        return staleAvg;
+    }
+
+    int staleMax() {
+        return staleMax;
+    }
+
+    /** Enemies alive but not scanned yet this round. */
+    int unseen() {
+        return unseen;
+    }
+
+    /** Mean of the per-turn averages since the round started. */
+    double roundStaleAvg() {
+        return roundTurns > 0 ? roundAvgSum / roundTurns : 0;
+    }
+
+    int roundStaleMax() {
+        return roundMax;
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Runs HUD and compass drawing on its own thread.
+ *
+ * The bot thread publishes one HudSnapshot per turn through a seqlock: it
+ * bumps the sequence to an odd value, writes the snapshot, and bumps it to
+ * even again. It never waits for the reader. The render thread wakes at a
+ * fixed refresh rate, and only when a newer even sequence is visible does it
+ * copy the snapshot, retry if the writer raced it, and hand the copy to the
+ * renderer. Snapshots published in between are simply skipped, so a slow
+ * paint can never hold up go(). A renderer that cannot use the frame (its
+ * own reads were torn) declines it, and the same snapshot is tried again
+ * on the next wake-up. Frames drawn and snapshots superseded are counted
+ * for the HUD.
+ *
+ * The renderer can be swapped while the thread runs (renderer()), so a
+ * resident bot that reconnects hands its window and this thread over to the
+ * bot of the next connection instead of starting them again.
+ */
+final class RenderScheduler {
+
+    private static final int MAX_READ_ATTEMPTS = 8;
+
+    /** Draws one frame; returns false to have the next wake-up retry the same snapshot. */
+    interface Renderer {
+        boolean render(HudSnapshot frame);
+    }
+
+    private final HudSnapshot shared;
+    private final HudSnapshot frame;
+    private volatile Renderer renderer;
+    private final long periodNanos;
+    private final Thread thread;
+
+    private final SeqLock lock = new SeqLock();
+    private volatile boolean running = true;
+
+    // render thread statistics
+    private volatile long framesRendered;
+    private volatile long framesDropped;
+    private long lastRenderedSeq;
+
+    RenderScheduler(String name, int fps, int maxEvents, Renderer renderer) {
+        this.shared = new HudSnapshot(maxEvents);
+        this.frame = new HudSnapshot(maxEvents);
+        this.renderer = renderer;
+        this.periodNanos = 1_000_000_000L / Math.max(1, fps);
+        this.thread = new Thread(this::loop, name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /** Hands the following frames to {@code renderer}; the frame being drawn finishes with the old one. */
+    void renderer(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /** Stops the render thread after the frame being drawn; the window keeps showing it. */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    // ── bot thread side ────────────────────────────────────────────────
+    /** Opens the publish window and returns the snapshot to fill. */
+    HudSnapshot beginPublish() {
+        lock.beginWrite();
+        return shared;
+    }
+
+    /** Closes the publish window; the render thread picks it up on its next frame. */
+    void endPublish() {
+        lock.endWrite();
+    }
+
+    /** Frames the renderer has drawn (the frame being drawn is not counted yet). */
+    long framesRendered() {
+        return framesRendered;
+    }
+
+    /** Snapshots that were published but superseded before the renderer got to them. */
+    long framesDropped() {
+        return framesDropped;
+    }
+
+    // ── render thread side ─────────────────────────────────────────────
+    private void loop() {
+        long next = System.nanoTime();
+        while (running) {
+            long s = lock.sequence();
+            long seq = s != lastRenderedSeq && (s & 1) == 0 ? readInto(frame) : -1;
+            if (seq >= 0) {
+                boolean drawn;
+                try {
+                    drawn = renderer.render(frame);
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // keep rendering; one bad frame must not kill the HUD
+                    drawn = true; // but do not retry it
+                }
+                if (drawn)
+                    rendered(seq);
+            }
+
+            next += periodNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            } else {
+                next = System.nanoTime(); // fell behind: don't try to catch up
+            }
+        }
+    }
+
+    /**
+     * Seqlock read: copies the shared snapshot, retrying if the writer raced
+     * the copy. Returns the sequence copied, or -1 if every attempt was torn.
+     */
+    private long readInto(HudSnapshot dst) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long before = lock.readBegin();
+            if (before < 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            dst.copyFrom(shared);
+            if (lock.readValidate(before))
+                return before;
+            dst.events.invalidate(); // torn copy: force a full event copy next time
+        }
+        return -1;
+    }
+
+    /** The renderer took the snapshot of {@code seq}; the ones published since the last are superseded. */
+    private void rendered(long seq) {
+        long published = (seq - lastRenderedSeq) / 2;
+        if (lastRenderedSeq != 0 && published > 1)
+            framesDropped += published - 1;
+        lastRenderedSeq = seq;
+        framesRendered++;
+    }
+}
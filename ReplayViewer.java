@@ -0,0 +1,332 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Plays a MatchRecorder file back through the normal HUD.
+ *
+ * A replay thread stands in for the bot thread: it applies the recorded
+ * scans and hits to an EnemyTracker, publishes one HudSnapshot per TURN
+ * record through a RenderScheduler, and paces itself by the recorded turn
+ * timestamps divided by the chosen speed ("max" does not wait at all and
+ * lets the render thread skip frames). The CompassPanel and HudText draw
+ * exactly as they do live, and the minimap gets the same trails. Seeking jumps through the turn index to the
+ * start of the target's round and re-applies that round up to the target
+ * turn, so the enemy rows and the event log are what they were at the time.
+ * The scans also feed a KalmanBank, so the HUD shows position estimates and
+ * confidences; the bearings are the recorded ones. Scan staleness is measured
+ * the same way as live, so radar modes can be compared after the fact.
+ *
+ * The controls only set volatile requests; all replay state is owned by the
+ * replay thread.
+ */
+final class ReplayViewer {
+
+    private static final String[] SPEED_LABELS = { "0.25x", "0.5x", "1x", "2x", "4x", "8x", "max" };
+    private static final double[] SPEEDS = { 0.25, 0.5, 1, 2, 4, 8, 0 };
+    private static final int DEFAULT_SPEED = 2;
+    private static final int HUD_FPS = 30;
+    private static final int MAX_EVENTS = 20;
+    private static final long MAX_WAIT_NANOS = 1_000_000_000L; // gaps longer than this are cut short
+    private static final long STATUS_NANOS = 100_000_000L;
+
+    private final MatchReplay replay;
+    private final String title;
+
+    // ── replay thread state ────────────────────────────────────────────
+    private final EnemyTracker enemies = new EnemyTracker();
+    private final KalmanBank filters = new KalmanBank();
+    private final RadarScheduler staleness = new RadarScheduler(); // only measures
+    private final TrailStore trails = new TrailStore();
+    private final EventRing events = new EventRing(MAX_EVENTS + 1);
+    private int next; // next record to apply
+    private int turnIndex; // index of the next TURN record
+    private int rounds, arenaWidth, arenaHeight;
+    private long lastStatus;
+
+    // ── requests from the controls ─────────────────────────────────────
+    private volatile boolean paused;
+    private volatile boolean stepRequested;
+    private volatile double speed = SPEEDS[DEFAULT_SPEED];
+    private volatile int seekRequest = -1; // turn index
+
+    // ── rendering (render thread) ──────────────────────────────────────
+    private final EnemyTracker frameEnemies = new EnemyTracker();
+    private final TrailStore frameTrails = new TrailStore();
+    private final HudText hudText = new HudText();
+    private final RenderScheduler renderScheduler;
+    private final Thread thread;
+
+    // ── GUI ────────────────────────────────────────────────────────────
+    private final Frame frame;
+    private final CompassPanel compassPanel = new CompassPanel();
+    private final MinimapPanel minimapPanel = new MinimapPanel();
+    private final TextArea infoArea = new TextArea("", 30, 40, TextArea.SCROLLBARS_VERTICAL_ONLY);
+    private final TextArea eventArea = new TextArea("", 5, 40, TextArea.SCROLLBARS_VERTICAL_ONLY);
+    private final Button playButton = new Button("Pause");
+    private final Scrollbar position;
+    private final Label status = new Label("", Label.LEFT);
+
+    private ReplayViewer(MatchReplay replay, String title) {
+        this.replay = replay;
+        this.title = title;
+        renderScheduler = new RenderScheduler("PlayerBot replay HUD", HUD_FPS, MAX_EVENTS, this::renderHud);
+        thread = new Thread(this::loop, "PlayerBot replay");
+        thread.setDaemon(true);
+        position = new Scrollbar(Scrollbar.HORIZONTAL, 0, 1, 0, Math.max(1, replay.turns()));
+        frame = buildFrame();
+    }
+
+    /** Opens {@code file} in a replay window; needs a display. */
+    static void show(Path file) throws java.io.IOException {
+        MatchReplay replay = MatchReplay.open(file);
+        ReplayViewer v = new ReplayViewer(replay, file.getFileName().toString());
+        v.frame.setVisible(true);
+        v.renderScheduler.start();
+        v.thread.start();
+    }
+
+    private Frame buildFrame() {
+        Frame f = new Frame("PlayerBot replay – " + title);
+        f.setLayout(new BorderLayout());
+
+        Button stepButton = new Button("Step");
+        Choice speedChoice = new Choice();
+        for (String s : SPEED_LABELS)
+            speedChoice.add(s);
+        speedChoice.select(DEFAULT_SPEED);
+        TextField seekField = new TextField("1:1", 8);
+        Button seekButton = new Button("Go to round:turn");
+
+        playButton.addActionListener(e -> {
+            paused = !paused;
+            playButton.setLabel(paused ? "Play" : "Pause");
+            LockSupport.unpark(thread);
+        });
+        stepButton.addActionListener(e -> {
+            paused = true;
+            playButton.setLabel("Play");
+            stepRequested = true;
+            LockSupport.unpark(thread);
+        });
+        speedChoice.addItemListener(e -> speed = SPEEDS[speedChoice.getSelectedIndex()]);
+        ActionListener seek = e -> {
+            String[] parts = seekField.getText().trim().split("\\s*:\\s*");
+            try {
+                int round = Integer.parseInt(parts[0]);
+                int turn = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+                requestSeek(replay.find(round, turn));
+            } catch (NumberFormatException ex) {
+                status.setText("Seek: expected round:turn, e.g. 2:150");
+            }
+        };
+        seekButton.addActionListener(seek);
+        seekField.addActionListener(seek);
+        position.addAdjustmentListener(e -> requestSeek(e.getValue()));
+
+        Panel controls = new Panel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(playButton);
+        controls.add(stepButton);
+        controls.add(new Label("Speed:"));
+        controls.add(speedChoice);
+        controls.add(seekField);
+        controls.add(seekButton);
+
+        Panel northPanel = new Panel(new BorderLayout());
+        northPanel.add(controls, BorderLayout.NORTH);
+        northPanel.add(position, BorderLayout.CENTER);
+        northPanel.add(status, BorderLayout.SOUTH);
+
+        infoArea.setEditable(false);
+        eventArea.setEditable(false);
+        Panel southPanel = new Panel(new BorderLayout());
+        southPanel.add(eventArea, BorderLayout.NORTH);
+        southPanel.add(infoArea, BorderLayout.CENTER);
+
+        f.add(northPanel, BorderLayout.NORTH);
+        f.add(compassPanel, BorderLayout.CENTER);
+        f.add(minimapPanel, BorderLayout.EAST);
+        f.add(southPanel, BorderLayout.SOUTH);
+        f.setSize(1200, 800);
+        f.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                System.exit(0);
+            }
+        });
+        return f;
+    }
+
+    private void requestSeek(int index) {
+        if (replay.turns() == 0)
+            return;
+        seekRequest = Math.max(0, Math.min(index, replay.turns() - 1));
+        LockSupport.unpark(thread);
+    }
+
+    // ── replay thread ──────────────────────────────────────────────────
+    private void loop() {
+        long lastNanos = -1;
+        while (true) {
+            int seek = seekRequest;
+            if (seek >= 0) {
+                seekRequest = -1;
+                seekTo(seek);
+                lastNanos = -1;
+                continue;
+            }
+            if (turnIndex >= replay.turns() && !paused) {
+                paused = true;
+                EventQueue.invokeLater(() -> playButton.setLabel("Play"));
+            }
+            if (turnIndex >= replay.turns() || paused && !stepRequested) {
+                LockSupport.parkNanos(this, 50_000_000L);
+                continue;
+            }
+            stepRequested = false;
+
+            int rec = advance();
+            publish(rec);
+            status(false);
+
+            long t = replay.l(rec, MatchRecorder.T_NANOS);
+            double s = speed;
+            if (lastNanos >= 0 && s > 0 && !paused) {
+                long wait = Math.min((long) ((t - lastNanos) / s), MAX_WAIT_NANOS);
+                if (wait > 0)
+                    LockSupport.parkNanos(this, wait);
+            }
+            lastNanos = t;
+        }
+    }
+
+    /** Applies records up to and including the next TURN record and returns it. */
+    private int advance() {
+        int target = replay.turnRecord(turnIndex++);
+        while (next < target)
+            apply(next++);
+        apply(next++);
+        return target;
+    }
+
+    /** Rebuilds the state at the {@code index}-th turn from the start of its round. */
+    private void seekTo(int index) {
+        enemies.clear();
+        events.clear();
+        trails.clear();
+        rounds = arenaWidth = arenaHeight = 0;
+        next = replay.roundStart(index);
+        turnIndex = index;
+        publish(advance());
+        status(true);
+    }
+
+    private void apply(int rec) {
+        MatchReplay r = replay;
+        switch (r.type(rec)) {
+            case MatchRecorder.ROUND:
+                rounds = r.i(rec, MatchRecorder.R_ROUNDS);
+                arenaWidth = r.i(rec, MatchRecorder.R_ARENA_WIDTH);
+                arenaHeight = r.i(rec, MatchRecorder.R_ARENA_HEIGHT);
+                enemies.newRound();
+                trails.clear();
+                events.add(EventRing.ROUND_STARTED, r.round(rec), r.turn(rec));
+                break;
+            case MatchRecorder.SCAN:
+                double angle = r.f(rec, MatchRecorder.S_ANGLE);
+                int id = r.i(rec, MatchRecorder.S_ID);
+                filters.update(id, r.round(rec), r.turn(rec), r.f(rec, MatchRecorder.S_X),
+                        r.f(rec, MatchRecorder.S_Y), r.f(rec, MatchRecorder.S_DIRECTION),
+                        r.f(rec, MatchRecorder.S_SPEED));
+                enemies.scan(id, r.turn(rec), r.f(rec, MatchRecorder.S_X),
+                        r.f(rec, MatchRecorder.S_Y), r.f(rec, MatchRecorder.S_ENERGY),
+                        r.f(rec, MatchRecorder.S_DIRECTION), r.f(rec, MatchRecorder.S_SPEED), angle, false, 0);
+                trails.add(id, r.f(rec, MatchRecorder.S_X), r.f(rec, MatchRecorder.S_Y));
+                break;
+            case MatchRecorder.HIT_BY_BULLET:
+                events.add(EventRing.HIT_BY_BULLET, r.round(rec), r.turn(rec), -1,
+                        r.f(rec, MatchRecorder.B_DIRECTION), r.f(rec, MatchRecorder.B_POWER));
+                break;
+            case MatchRecorder.DEATH:
+                enemies.died(r.i(rec, MatchRecorder.D_ID));
+                events.add(EventRing.BOT_DEATH, r.round(rec), r.turn(rec), r.i(rec, MatchRecorder.D_ID), 0, 0);
+                break;
+            case MatchRecorder.HIT_WALL:
+                events.add(EventRing.HIT_WALL, r.round(rec), r.turn(rec));
+                break;
+            case MatchRecorder.TURN:
+                enemies.track(filters, r.round(rec), r.turn(rec), r.f(rec, MatchRecorder.T_X),
+                        r.f(rec, MatchRecorder.T_Y), arenaWidth, arenaHeight, false);
+                trails.add(TrailStore.SELF, r.f(rec, MatchRecorder.T_X), r.f(rec, MatchRecorder.T_Y));
+                float power = r.f(rec, MatchRecorder.T_FIRE_POWER);
+                if (power > 0)
+                    events.add(EventRing.FIRED, r.round(rec), r.turn(rec), -1, power, 0);
+                break;
+            default:
+                break; // written by a newer recorder; skip
+        }
+    }
+
+    private void publish(int rec) {
+        MatchReplay r = replay;
+        HudSnapshot s = renderScheduler.beginPublish();
+        s.round = r.round(rec);
+        s.rounds = rounds;
+        s.turn = r.turn(rec);
+        s.arenaWidth = arenaWidth;
+        s.arenaHeight = arenaHeight;
+        s.energy = r.f(rec, MatchRecorder.T_ENERGY);
+        s.x = r.f(rec, MatchRecorder.T_X);
+        s.y = r.f(rec, MatchRecorder.T_Y);
+        s.heading = r.f(rec, MatchRecorder.T_HEADING);
+        s.gunHeading = r.f(rec, MatchRecorder.T_GUN_HEADING);
+        s.radarHeading = r.f(rec, MatchRecorder.T_RADAR_HEADING);
+        s.gunHeat = r.f(rec, MatchRecorder.T_GUN_HEAT);
+        s.speed = r.f(rec, MatchRecorder.T_SPEED);
+        s.keys = r.i(rec, MatchRecorder.T_KEYS);
+        staleness.measure(enemies, s.round, s.turn, -1);
+        s.staleAvg = staleness.staleAvg();
+        s.staleMax = staleness.staleMax();
+        s.roundStaleAvg = staleness.roundStaleAvg();
+        s.roundStaleMax = staleness.roundStaleMax();
+        s.events.copyFrom(events);
+        renderScheduler.endPublish();
+    }
+
+    /** Updates the position bar and status line, at most every STATUS_NANOS unless forced. */
+    private void status(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastStatus < STATUS_NANOS && turnIndex < replay.turns())
+            return;
+        lastStatus = now;
+        int rec = replay.turnRecord(turnIndex - 1);
+        String text = String.format("Round %d, turn %d   (%d / %d turns)", replay.round(rec), replay.turn(rec),
+                turnIndex, replay.turns());
+        int value = turnIndex - 1;
+        EventQueue.invokeLater(() -> {
+            position.setValue(value);
+            status.setText(text);
+        });
+    }
+
+    // ── render thread ──────────────────────────────────────────────────
+    private boolean renderHud(HudSnapshot f) {
+        EnemyTracker en = frameEnemies;
+        if (!enemies.readInto(en) || !trails.readInto(frameTrails))
+            return false; // torn copy; the scheduler retries this frame, copying in full
+        compassPanel.render(f, en);
+        minimapPanel.render(f, en, frameTrails);
+
+        HudText t = hudText;
+        t.renderFrames(renderScheduler.framesRendered(), renderScheduler.framesDropped());
+        t.frame(f, en);
+        String info = t.takeInfoText();
+        if (info != null)
+            infoArea.setText(info);
+        String events = t.takeEventText();
+        if (events != null)
+            eventArea.setText(events);
+        return true;
+    }
+}
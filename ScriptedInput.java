@@ -0,0 +1,143 @@
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Key input read from a script file instead of the keyboard.
+ *
+ * Each non-empty line is "<turn> <key> <key> ..." and means: from that turn
+ * on, exactly these keys are held. A line with only a turn number releases
+ * everything. '#' starts a comment. Keys are the names below (W, SPACE,
+ * SHIFT, ...) or raw key codes. Turn numbers restart every round, and so
+ * does the script.
+ *
+ *   # drive forward, turn left for a bit, then fire once
+ *   1   W
+ *   40  W A
+ *   60  SPACE
+ *   61
+ *
+ * The script feeds KeyState through the same press/release calls as the
+ * keyboard dispatcher, so the bot sees identical levels and edges.
+ */
+final class ScriptedInput {
+
+    static final String[] NAMES = { "W", "A", "S", "D", "UP", "DOWN", "LEFT", "RIGHT", "Q", "E", "R",
+            "SPACE", "ENTER", "SHIFT", "F" };
+    // KeyEvent.VK_* are compile-time constants, so KeyEvent itself is never loaded
+    static final int[] CODES = { KeyEvent.VK_W, KeyEvent.VK_A, KeyEvent.VK_S, KeyEvent.VK_D,
+            KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_Q, KeyEvent.VK_E,
+            KeyEvent.VK_R, KeyEvent.VK_SPACE, KeyEvent.VK_ENTER, KeyEvent.VK_SHIFT, KeyEvent.VK_F };
+
+    private final int[] turns;
+    private final int[][] keySets;
+
+    private int next;
+    private int lastTurn = Integer.MAX_VALUE;
+    private int[] held = new int[0];
+
+    private ScriptedInput(int[] turns, int[][] keySets) {
+        this.turns = turns;
+        this.keySets = keySets;
+    }
+
+    static ScriptedInput load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<int[]> entries = new ArrayList<>();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int hash = line.indexOf('#');
+            if (hash >= 0)
+                line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+            String[] parts = line.split("\\s+");
+            int[] entry = new int[parts.length];
+            try {
+                entry[0] = Integer.parseInt(parts[0]);
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ":" + (n + 1) + ": expected a turn number, got '" + parts[0] + "'");
+            }
+            for (int i = 1; i < parts.length; i++) {
+                entry[i] = keyCode(parts[i]);
+                if (entry[i] < 0)
+                    throw new IOException(file + ":" + (n + 1) + ": unknown key '" + parts[i] + "'");
+            }
+            entries.add(entry);
+        }
+        entries.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+        int[] turns = new int[entries.size()];
+        int[][] keySets = new int[entries.size()][];
+        for (int i = 0; i < turns.length; i++) {
+            int[] e = entries.get(i);
+            turns[i] = e[0];
+            keySets[i] = java.util.Arrays.copyOfRange(e, 1, e.length);
+        }
+        return new ScriptedInput(turns, keySets);
+    }
+
+    /** Script held in arrays: from {@code turns[i]} on, exactly {@code keySets[i]} is held. Turns ascending. */
+    static ScriptedInput of(int[] turns, int[][] keySets) {
+        return new ScriptedInput(turns.clone(), keySets.clone());
+    }
+
+    /**
+     * Applies the key sets due by {@code turn}, pressing and releasing only
+     * what changed. Sets whose turn was skipped are applied too, in order,
+     * so KeyState latches a one-turn tap even when its turn never came.
+     */
+    void apply(int turn, KeyState keys) {
+        if (turn < lastTurn) // new round: replay from the top
+            next = 0;
+        lastTurn = turn;
+        if (next >= turns.length || turns[next] > turn)
+            return;
+
+        long now = System.nanoTime();
+        while (next < turns.length && turns[next] <= turn) {
+            int[] target = keySets[next++];
+            for (int code : held)
+                if (!contains(target, code))
+                    keys.release(code, now);
+            for (int code : target)
+                if (!contains(held, code))
+                    keys.press(code, now);
+            held = target;
+        }
+    }
+
+    /** Bit i set when key CODES[i] is active this turn; the compact form used by recordings and the HUD. */
+    static int keyMask(KeyState keys) {
+        int mask = 0;
+        for (int i = 0; i < CODES.length; i++)
+            if (keys.active(CODES[i]))
+                mask |= 1 << i;
+        return mask;
+    }
+
+    private static int keyCode(String name) {
+        String n = name.toUpperCase(java.util.Locale.ROOT);
+        for (int i = 0; i < NAMES.length; i++)
+            if (NAMES[i].equals(n))
+                return CODES[i];
+        try {
+            int code = Integer.parseInt(n);
+            return code >= 0 && code < KeyState.MAX_CODE ? code : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean contains(int[] set, int code) {
+        for (int c : set)
+            if (c == code)
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+import java.lang.invoke.VarHandle;
+
+/*
+ * Single-writer sequence lock.
+ *
+ * The writer makes the sequence odd, writes plain fields, and makes it even
+ * again; it never blocks. Readers copy the fields between readBegin() and
+ * readValidate() and retry when the sequence moved, so they always end up
+ * with a consistent copy without the writer ever waiting on them.
+ */
+final class SeqLock {
+    private volatile long seq;
+
+    /** Opens a write window. Single writer thread only. */
+    void beginWrite() {
+        seq = seq + 1; // odd: write in progress
+        VarHandle.storeStoreFence(); // keep the data writes after the odd sequence
+    }
+
+    /** Closes the write window; the volatile write releases the data. */
+    void endWrite() {
+        seq = seq + 1;
+    }
+
+    /** Returns the even sequence to read under, or -1 while a write is in progress. */
+    long readBegin() {
+        long s = seq;
+        return (s & 1) == 0 ? s : -1;
+    }
+
+    /** True if nothing was written since {@code readBegin} returned {@code s}. */
+    boolean readValidate(long s) {
+        VarHandle.loadLoadFence(); // keep the data reads before the re-check
+        return seq == s;
+    }
+
+    long sequence() {
+        return seq;
+    }
+}
@@ -0,0 +1,401 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/*
+ * Just enough of a Tank Royale server, in process, to drive one bot as fast
+ * as it answers.
+ *
+ * Speaks RFC 6455 WebSocket over a loopback socket (upgrade handshake,
+ * masked client frames, ping/pong, close) and the bot side of the game
+ * protocol: server handshake, game started, round started, then one
+ * TickEventForBot per turn() with a ScannedBotEvent for every stand-in
+ * enemy, and finally GameEndedEventForBot. Each tick goes out as soon as
+ * the intent for the previous one is in, so the turn rate is bound only by
+ * the bot. The bot's own tank moves on the rates in its intents;
+ * the enemies circle the arena centre at full speed, each on its own
+ * radius, so trackers and the HUD see changing values every turn. Every
+ * SHOT_INTERVAL turns each enemy's energy drops by SHOT_POWER, as if it had
+ * fired (no bullet is sent), so the wave tracker has shots to follow.
+ *
+ * Messages are built in reused buffers and intents are read with a flat key
+ * scan rather than a JSON library, so the server adds little to the turn
+ * time it measures. One connection, one thread.
+ *
+ * Drives the end-to-end benchmark (bench/, TickThroughput) and the
+ * --training-run that the build records its class-data-sharing archive
+ * from.
+ */
+final class StandInServer implements AutoCloseable {
+
+    private static final String WS_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int ARENA_WIDTH = 800, ARENA_HEIGHT = 600;
+    private static final int SHOT_INTERVAL = 16, SHOTS_PER_REFILL = 30;
+    private static final double SHOT_POWER = 2;
+    private static final int MY_ID = 1;
+
+    private final ServerSocket listener;
+    private final int enemies;
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+
+    // reused message and frame buffers
+    private final StringBuilder json = new StringBuilder(1024);
+    private byte[] frame = new byte[4096];
+    private byte[] payload = new byte[4096];
+    private int payloadLength;
+    private int opcode; // of the message being read, for continuation frames
+    private final byte[] mask = new byte[4];
+    private final byte[] control = new byte[125];
+
+    // own tank, moved by the intents
+    private double x = ARENA_WIDTH / 2.0, y = ARENA_HEIGHT / 2.0;
+    private double direction, gunDirection, radarDirection, speed, gunHeat;
+    private double turnRate, gunTurnRate, radarTurnRate, targetSpeed, firepower;
+
+    /** Listens on an ephemeral loopback port for a bot that will see {@code enemies} scanned bots per tick. */
+    StandInServer(int enemies) throws IOException {
+        this.enemies = enemies;
+        listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    }
+
+    /** Server URL to give the bot. */
+    String url() {
+        return "ws://127.0.0.1:" + listener.getLocalPort();
+    }
+
+    // ── connection and game setup ──────────────────────────────────────
+    /**
+     * Waits for the bot to connect, then runs handshake, game start and round
+     * start. {@code timeoutMillis} also bounds every later wait for the bot.
+     */
+    void accept(int timeoutMillis) throws IOException {
+        listener.setSoTimeout(timeoutMillis);
+        socket = listener.accept();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMillis); // a bot that stops answering fails the run instead of hanging it
+        in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+        out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+        upgrade();
+
+        json.setLength(0);
+        json.append("{\"type\":\"ServerHandshake\",\"sessionId\":\"stand-in\",\"name\":\"Stand-in server\",")
+                .append("\"variant\":\"Tank Royale\",\"version\":\"0.32.1\",\"gameTypes\":[\"melee\"]}");
+        send();
+        expect("BotHandshake");
+
+        json.setLength(0);
+        json.append("{\"type\":\"GameStartedEventForBot\",\"myId\":").append(MY_ID)
+                .append(",\"startX\":").append(x).append(",\"startY\":").append(y)
+                .append(",\"startDirection\":0,\"teammateIds\":[],\"gameSetup\":{\"gameType\":\"melee\",")
+                .append("\"arenaWidth\":").append(ARENA_WIDTH).append(",\"isArenaWidthLocked\":false,")
+                .append("\"arenaHeight\":").append(ARENA_HEIGHT).append(",\"isArenaHeightLocked\":false,")
+                .append("\"minNumberOfParticipants\":2,\"isMinNumberOfParticipantsLocked\":false,")
+                .append("\"maxNumberOfParticipants\":").append(enemies + 1)
+                .append(",\"isMaxNumberOfParticipantsLocked\":false,")
+                .append("\"numberOfRounds\":1,\"isNumberOfRoundsLocked\":false,")
+                .append("\"gunCoolingRate\":0.1,\"isGunCoolingRateLocked\":false,")
+                .append("\"maxInactivityTurns\":450,\"isMaxInactivityTurnsLocked\":false,")
+                .append("\"turnTimeout\":30000,\"isTurnTimeoutLocked\":false,")
+                .append("\"readyTimeout\":1000000,\"isReadyTimeoutLocked\":false,")
+                .append("\"defaultTurnsPerSecond\":30}}");
+        send();
+        expect("BotReady");
+
+        json.setLength(0);
+        json.append("{\"type\":\"RoundStartedEvent\",\"roundNumber\":1}");
+        send();
+    }
+
+    /** Answers the HTTP upgrade request with the RFC 6455 accept key. */
+    private void upgrade() throws IOException {
+        String key = null;
+        for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key"))
+                key = line.substring(colon + 1).trim();
+        }
+        if (key == null)
+            throw new IOException("Not a WebSocket upgrade request");
+        String accept;
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            accept = Base64.getEncoder().encodeToString(sha1.digest((key + WS_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c < 0)
+                throw new EOFException("Connection closed during upgrade");
+            if (c != '\r')
+                sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    // ── turns ──────────────────────────────────────────────────────────
+    /**
+     * Sends the tick for {@code turn} and waits for the bot's intent.
+     * Returns the nanoseconds from the tick being written to the intent
+     * being read, or -1 if the bot disconnected.
+     */
+    long turn(int turn) throws IOException {
+        buildTick(turn);
+        long start = System.nanoTime();
+        send();
+        while (readMessage()) {
+            if (isType("BotIntent")) {
+                long nanos = System.nanoTime() - start;
+                applyIntent();
+                move();
+                return nanos;
+            }
+        }
+        return -1;
+    }
+
+    private void buildTick(int turn) {
+        StringBuilder j = json;
+        j.setLength(0);
+        j.append("{\"type\":\"TickEventForBot\",\"turnNumber\":").append(turn).append(",\"roundNumber\":1,")
+                .append("\"botState\":{\"isDroid\":false,\"energy\":100.0,\"x\":").append(x).append(",\"y\":").append(y)
+                .append(",\"direction\":").append(direction).append(",\"gunDirection\":").append(gunDirection)
+                .append(",\"radarDirection\":").append(radarDirection).append(",\"radarSweep\":").append(radarTurnRate)
+                .append(",\"speed\":").append(speed).append(",\"turnRate\":").append(turnRate)
+                .append(",\"gunTurnRate\":").append(gunTurnRate).append(",\"radarTurnRate\":").append(radarTurnRate)
+                .append(",\"gunHeat\":").append(gunHeat).append(",\"enemyCount\":").append(enemies)
+                .append(",\"isDebuggingEnabled\":false},\"bulletStates\":[],\"events\":[");
+        for (int i = 0; i < enemies; i++) {
+            double radius = 60 + (i % 8) * 30;
+            double omega = Math.toDegrees(8 / radius) * (i % 2 == 0 ? 1 : -1); // 8 units per turn along the circle
+            double a = Math.toRadians(i * 137.5 + turn * omega);
+            double ex = ARENA_WIDTH / 2.0 + radius * Math.cos(a);
+            double ey = ARENA_HEIGHT / 2.0 + radius * Math.sin(a);
+            double heading = Math.toDegrees(a) + (omega > 0 ? 90 : -90);
+            double energy = 100 - SHOT_POWER * ((turn + 5 * i) / SHOT_INTERVAL % SHOTS_PER_REFILL); // staggered
+            if (i > 0)
+                j.append(',');
+            j.append("{\"type\":\"ScannedBotEvent\",\"turnNumber\":").append(turn)
+                    .append(",\"scannedByBotId\":").append(MY_ID).append(",\"scannedBotId\":").append(MY_ID + 1 + i)
+                    .append(",\"energy\":").append(energy).append(",\"x\":").append(ex).append(",\"y\":").append(ey)
+                    .append(",\"direction\":").append(((heading % 360) + 360) % 360).append(",\"speed\":8.0}");
+        }
+        j.append("]}");
+    }
+
+    /** Takes the rates the bot asked for; fields missing from the intent keep their last value. */
+    private void applyIntent() {
+        targetSpeed = field("targetSpeed", targetSpeed);
+        turnRate = clamp(field("turnRate", turnRate), 10);
+        gunTurnRate = clamp(field("gunTurnRate", gunTurnRate), 20);
+        radarTurnRate = clamp(field("radarTurnRate", radarTurnRate), 45);
+        firepower = field("firepower", 0);
+    }
+
+    /** Rough tank physics: enough for the values to move, not a rules engine. */
+    private void move() {
+        double want = clamp(targetSpeed, 8);
+        speed = want > speed ? Math.min(want, speed + 1) : Math.max(want, speed - 2);
+        direction = (direction + turnRate + 360) % 360;
+        gunDirection = (gunDirection + gunTurnRate + 360) % 360;
+        radarDirection = (radarDirection + radarTurnRate + 360) % 360;
+        double rad = Math.toRadians(direction);
+        x = Math.max(18, Math.min(ARENA_WIDTH - 18, x + speed * Math.cos(rad)));
+        y = Math.max(18, Math.min(ARENA_HEIGHT - 18, y + speed * Math.sin(rad)));
+        gunHeat = Math.max(0, gunHeat - 0.1);
+        if (firepower > 0 && gunHeat == 0)
+            gunHeat = 1 + firepower / 5;
+    }
+
+    private static double clamp(double v, double limit) {
+        return Math.max(-limit, Math.min(limit, v));
+    }
+
+    // ── end of game ────────────────────────────────────────────────────
+    /** Ends the game and closes the connection, so the bot's start() returns. */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (socket != null && !socket.isClosed()) {
+                json.setLength(0);
+                json.append("{\"type\":\"GameEndedEventForBot\",\"numberOfRounds\":1,\"results\":{\"rank\":1,")
+                        .append("\"survival\":0,\"lastSurvivorBonus\":0,\"bulletDamage\":0,\"bulletKillBonus\":0,")
+                        .append("\"ramDamage\":0,\"ramKillBonus\":0,\"totalScore\":0,\"firstPlaces\":1,")
+                        .append("\"secondPlaces\":0,\"thirdPlaces\":0}}");
+                send();
+                writeFrame(0x8, new byte[] { 0x03, (byte) 0xE8 }, 2); // close, 1000 normal
+                socket.close();
+            }
+        } finally {
+            listener.close();
+        }
+    }
+
+    // ── WebSocket frames ───────────────────────────────────────────────
+    /** Sends json as one text frame. The messages are ASCII. */
+    private void send() throws IOException {
+        int n = json.length();
+        if (frame.length < n)
+            frame = new byte[Math.max(n, frame.length * 2)];
+        for (int i = 0; i < n; i++)
+            frame[i] = (byte) json.charAt(i);
+        writeFrame(0x1, frame, n);
+    }
+
+    private void writeFrame(int op, byte[] data, int n) throws IOException {
+        out.write(0x80 | op); // FIN; servers never mask
+        if (n < 126) {
+            out.write(n);
+        } else if (n < 65536) {
+            out.write(126);
+            out.write(n >>> 8);
+            out.write(n);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                out.write((int) ((long) n >>> shift));
+        }
+        out.write(data, 0, n);
+        out.flush();
+    }
+
+    /** Reads the next complete text message into payload; false once the bot closes. */
+    private boolean readMessage() throws IOException {
+        payloadLength = 0;
+        while (true) {
+            int b0 = in.read(), b1 = in.read();
+            if (b0 < 0 || b1 < 0)
+                return false;
+            int op = b0 & 0x0F;
+            long len = b1 & 0x7F;
+            if (len == 126)
+                len = (readByte() << 8) | readByte();
+            else if (len == 127)
+                for (int i = 0; i < 8; i++)
+                    len = (len << 8) | readByte();
+            boolean masked = (b1 & 0x80) != 0;
+            if (masked)
+                readFully(mask, 0, 4);
+            if (op >= 0x8) { // control frames carry at most 125 bytes and may sit between fragments
+                readFully(control, 0, (int) len);
+                if (masked)
+                    for (int i = 0; i < len; i++)
+                        control[i] ^= mask[i & 3];
+                if (op == 0x8) {
+                    writeFrame(0x8, control, Math.min(2, (int) len));
+                    socket.close();
+                    return false;
+                }
+                if (op == 0x9)
+                    writeFrame(0xA, control, (int) len);
+                continue;
+            }
+            int start = payloadLength;
+            int end = start + (int) len;
+            if (payload.length < end)
+                payload = java.util.Arrays.copyOf(payload, Math.max(end, payload.length * 2));
+            readFully(payload, start, (int) len);
+            if (masked)
+                for (int i = 0; i < len; i++)
+                    payload[start + i] ^= mask[i & 3];
+            if (op != 0x0)
+                opcode = op;
+            payloadLength = end;
+            if ((b0 & 0x80) != 0) {
+                if (opcode == 0x1)
+                    return true;
+                payloadLength = 0; // binary messages are not part of the protocol
+            }
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0)
+            throw new EOFException();
+        return b;
+    }
+
+    private void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = in.read(b, off, len);
+            if (n < 0)
+                throw new EOFException();
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void expect(String type) throws IOException {
+        while (readMessage()) {
+            if (isType(type))
+                return;
+        }
+        throw new EOFException("Bot disconnected before " + type);
+    }
+
+    // ── flat JSON scan ─────────────────────────────────────────────────
+    /** True when the current message's "type" is {@code type}. */
+    private boolean isType(String type) {
+        int at = indexOf("\"type\"");
+        if (at < 0)
+            return false;
+        at = skipToValue(at + 6);
+        if (at >= payloadLength || payload[at] != '"')
+            return false;
+        for (int i = 0; i < type.length(); i++)
+            if (at + 1 + i >= payloadLength || payload[at + 1 + i] != type.charAt(i))
+                return false;
+        return at + 1 + type.length() < payloadLength && payload[at + 1 + type.length()] == '"';
+    }
+
+    /** Top-level number {@code "key": n} of the current message, or {@code fallback}. */
+    private double field(String key, double fallback) {
+        int at = indexOf('"' + key + '"');
+        if (at < 0)
+            return fallback;
+        at = skipToValue(at + key.length() + 2);
+        int end = at;
+        while (end < payloadLength && "+-.0123456789eE".indexOf(payload[end]) >= 0)
+            end++;
+        if (end == at)
+            return fallback; // null or not a number
+        return Double.parseDouble(new String(payload, at, end - at, StandardCharsets.US_ASCII));
+    }
+
+    private int skipToValue(int at) {
+        while (at < payloadLength && (payload[at] == ':' || payload[at] == ' '))
+            at++;
+        return at;
+    }
+
+    private int indexOf(String s) {
+        outer:
+        for (int i = 0; i + s.length() <= payloadLength; i++) {
+            for (int k = 0; k < s.length(); k++)
+                if (payload[i + k] != s.charAt(k))
+                    continue outer;
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Startup milestones of one bot, reported once after its first intent:
+ *
+ *   PlayerBot startup: connected 212 ms, ready 231 ms, first intent 284 ms
+ *       after JVM start (main 58 ms, bot built 120 ms; server ready timeout 1000 ms)
+ *
+ * "ready" is onGameStarted, which the bot API calls right after it has sent
+ * BotReady, so it is the number to hold against the server's ready timeout.
+ * Times count from JVM start (RuntimeMXBean, looked up only when reporting,
+ * off the bot thread), or from main() where java.management is missing.
+ * Marks come from the connection, bot and HUD threads; only the first mark
+ * of each milestone counts, so later rounds and reconnects do not move
+ * them.
+ */
+final class StartupTimer {
+
+    static final int BUILT = 0, CONNECTED = 1, READY = 2, FIRST_TURN = 3, FIRST_INTENT = 4, HUD = 5;
+    private static final int MILESTONES = 6;
+
+    // one clock pair for the whole JVM, so nanoTime marks can be placed on the wall clock
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final long ORIGIN_MILLIS = System.currentTimeMillis();
+    private static volatile long mainNanos;
+    private static long jvmStart = Long.MIN_VALUE; // looked up on the first report (under StartupTimer.class)
+
+    private final AtomicLongArray at = new AtomicLongArray(MILESTONES); // nanoTime, 0 = not yet
+    private volatile int readyTimeoutMillis = -1;
+
+    /** Marks main() entered; call first thing in every entry point. */
+    static void mainEntered() {
+        if (mainNanos == 0)
+            mainNanos = System.nanoTime();
+    }
+
+    /** Marks {@code milestone} now, unless it was marked before. */
+    void mark(int milestone) {
+        at.compareAndSet(milestone, 0, System.nanoTime());
+    }
+
+    /** The server's ready timeout from the game setup, for the report. */
+    void readyTimeout(int micros) {
+        readyTimeoutMillis = micros / 1000;
+    }
+
+    /** The first-intent report for bot {@code name}. */
+    String report(String name) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(name).append(" startup:");
+        append(sb, " connected", CONNECTED);
+        append(sb, ", ready", READY);
+        append(sb, ", first intent", FIRST_INTENT);
+        sb.append(" after ").append(jvmStartMillis() >= 0 ? "JVM start" : "main").append(" (");
+        if (mainNanos != 0 && jvmStartMillis() >= 0)
+            sb.append("main ").append(millis(mainNanos)).append(" ms, ");
+        sb.append("bot built ").append(millis(at.get(BUILT))).append(" ms");
+        if (readyTimeoutMillis >= 0)
+            sb.append("; server ready timeout ").append(readyTimeoutMillis).append(" ms");
+        return sb.append(')').toString();
+    }
+
+    /** The report for the HUD window, built after the first intent under --fast-start. */
+    String hudReport(String name) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(name).append(" startup:");
+        append(sb, " HUD shown", HUD);
+        return sb.append(" after ").append(jvmStartMillis() >= 0 ? "JVM start" : "main").toString();
+    }
+
+    private void append(StringBuilder sb, String label, int milestone) {
+        long t = at.get(milestone);
+        sb.append(label).append(' ');
+        if (t == 0)
+            sb.append('-');
+        else
+            sb.append(millis(t)).append(" ms");
+    }
+
+    /** Milliseconds from JVM start (or main) to {@code nanos}. */
+    private static long millis(long nanos) {
+        long start = jvmStartMillis();
+        if (start >= 0)
+            return ORIGIN_MILLIS - start + (nanos - ORIGIN_NANOS) / 1_000_000;
+        return (nanos - (mainNanos != 0 ? mainNanos : ORIGIN_NANOS)) / 1_000_000;
+    }
+
+    private static synchronized long jvmStartMillis() {
+        if (jvmStart == Long.MIN_VALUE) {
+            try {
+                jvmStart = java.lang.management.ManagementFactory.getRuntimeMXBean().getStartTime();
+            } catch (LinkageError e) { // a runtime image without java.management
+                jvmStart = -1;
+            }
+        }
+        return jvmStart;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Recent positions of every bot, for the minimap trails.
+ *
+ * Each bot id owns a ring of LENGTH points, kept as floats in two flat
+ * arrays (row id * LENGTH), plus the count of points it has ever been given.
+ * Point n of a bot sits in slot n % LENGTH, so a scan is two array stores
+ * and memory stays at LENGTH points per bot however long the match runs.
+ * Our own bot is kept under SELF, which no bot id uses.
+ *
+ * The bot thread is the only writer and wraps every update in a SeqLock
+ * window, like EnemyTracker. The render thread keeps a TrailStore of its
+ * own and brings it up to date with readInto(), which copies only the
+ * points added since the last copy, so the copy costs as little as the new
+ * segments the minimap draws from it. clear() starts a new round; readers
+ * notice by clears() changing.
+ */
+final class TrailStore {
+
+    static final int LENGTH = 128; // points per bot
+    static final int SELF = 0; // bot ids start at 1
+    private static final int MAX_READ_ATTEMPTS = 8;
+
+    private final SeqLock lock = new SeqLock();
+    private float[] xs = new float[16 * LENGTH], ys = new float[16 * LENGTH];
+    private long[] written = new long[16]; // points ever added, per id
+    private int clears;
+
+    // ── bot thread: updates ────────────────────────────────────────────
+    /** Appends position (x, y) to the trail of {@code id}. */
+    void add(int id, double x, double y) {
+        if (id < 0)
+            return;
+        lock.beginWrite();
+        if (id >= written.length)
+            grow(Math.max(id + 1, written.length * 2));
+        long n = written[id];
+        int i = id * LENGTH + (int) (n % LENGTH);
+        xs[i] = (float) x;
+        ys[i] = (float) y;
+        written[id] = n + 1;
+        lock.endWrite();
+    }
+
+    /** Forgets every trail, at the start of a round. */
+    void clear() {
+        lock.beginWrite();
+        java.util.Arrays.fill(written, 0);
+        clears++;
+        lock.endWrite();
+    }
+
+    // ── reads (owning thread, or a copy made by readInto) ─────────────
+    /** Ids below this may have a trail. */
+    int capacity() {
+        return written.length;
+    }
+
+    /** Points ever added to the trail of {@code id}; the newest is {@code written(id) - 1}. */
+    long written(int id) {
+        return id < written.length ? written[id] : 0;
+    }
+
+    /** Oldest point of {@code id} still held. */
+    long oldest(int id) {
+        return Math.max(0, written(id) - LENGTH);
+    }
+
+    float x(int id, long n) {
+        return xs[id * LENGTH + (int) (n % LENGTH)];
+    }
+
+    float y(int id, long n) {
+        return ys[id * LENGTH + (int) (n % LENGTH)];
+    }
+
+    /** Changes whenever the trails were cleared (or a copy could not be completed). */
+    int clears() {
+        return clears;
+    }
+
+    // ── render thread: incremental copy ────────────────────────────────
+    /**
+     * Brings {@code dst} up to date with this store under the seqlock,
+     * copying only the points it does not have yet. Returns false if the
+     * writer kept interfering; {@code dst} is then torn and must not be
+     * drawn, and is marked for a full copy so its readers rebuild from
+     * scratch next time.
+     */
+    boolean readInto(TrailStore dst) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long s = lock.readBegin();
+            if (s < 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (dst.copyNew(this) && lock.readValidate(s))
+                return true;
+            dst.clears = -1; // torn: start over from scratch
+        }
+        return false;
+    }
+
+    /** Plain copy of what is new in {@code src}; may observe a torn source, which readInto() then discards. */
+    private boolean copyNew(TrailStore src) {
+        int srcClears = src.clears;
+        long[] srcWritten = src.written;
+        float[] srcXs = src.xs, srcYs = src.ys;
+        int cap = srcWritten.length;
+        if (srcXs.length < cap * LENGTH || srcYs.length < cap * LENGTH)
+            return false; // caught mid-grow
+        if (srcClears != clears) {
+            java.util.Arrays.fill(written, 0);
+            clears = srcClears;
+        }
+        if (cap > written.length)
+            grow(cap);
+        for (int id = 0; id < cap; id++) {
+            long end = srcWritten[id];
+            long from = Math.max(written[id], end - LENGTH);
+            int row = id * LENGTH;
+            for (long n = from; n < end; n++) {
+                int i = row + (int) (n % LENGTH);
+                xs[i] = srcXs[i];
+                ys[i] = srcYs[i];
+            }
+            written[id] = end;
+        }
+        return true;
+    }
+
+    private void grow(int cap) {
+        written = java.util.Arrays.copyOf(written, cap);
+        xs = java.util.Arrays.copyOf(xs, cap * LENGTH);
+        ys = java.util.Arrays.copyOf(ys, cap * LENGTH);
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Per-turn latency of the run() loop, stage by stage.
+ *
+ * The bot thread calls beginTurn() at the top of every turn and mark(stage)
+ * after each stage; each mark records the time since the previous one into
+ * that stage's LatencyHistogram, so a turn costs a handful of nanoTime()
+ * calls and array increments and never allocates. WORK is the whole turn up
+ * to go(), i.e. what has to fit inside the server's turn timeout; GO is the
+ * time blocked in go() waiting for the next tick. Turns the server moved on
+ * without us (the turn number jumped by more than one) are counted as
+ * skipped.
+ *
+ * The HUD summary (p50/p99/max per stage) is recomputed every
+ * SUMMARY_TURNS turns. With a CSV file, a second set of histograms covers
+ * the current window of CSV_WINDOW_TURNS turns; full windows are swapped
+ * with a spare set and written by a background thread, so the bot thread
+ * never touches the disk. If the writer is still busy, the window simply
+ * grows until the spare comes back. A window never spans two rounds: at a
+ * round change the bot thread waits up to HANDOFF_WAIT_MILLIS for the spare
+ * and, should the writer still hold it, drops the old round's window rather
+ * than merge it into the new one. flush() hands off the unfinished window
+ * at game end, and close() also waits for it to be written and stops the
+ * writer, so a match's last turns reach the file.
+ *
+ * While the flight recorder runs (FlightRecording), each turn is also
+ * committed as a playerbot.Turn event with this turn's time per stage.
+ */
+final class TurnProfiler {
+
+    // ── stages ─────────────────────────────────────────────────────────
+    static final int INPUT = 0, TRACK = 1, AIM = 2, RADAR = 3, MOVEMENT = 4, GUN = 5, FIRE = 6, RECORD = 7, HUD = 8,
+            WORK = 9, GO = 10;
+    static final int STAGES = 11;
+    static final String[] STAGE_NAMES = { "input", "track", "aim", "radar", "move", "gun", "fire", "record", "hud",
+            "work", "go" };
+
+    /** Values per stage in {@link #summaryInto}: p50, p99, max (nanoseconds). */
+    static final int SUMMARY_WIDTH = 3;
+    private static final int SUMMARY_TURNS = 30;
+    private static final int CSV_WINDOW_TURNS = 250;
+    private static final long HANDOFF_WAIT_MILLIS = 100; // round change, game end: time the writer gets to return the spare
+
+    private final LatencyHistogram[] total = histograms();
+    private final long[] summary = new long[STAGES * SUMMARY_WIDTH];
+    private int sinceSummary;
+
+    private long last; // nanoTime of the previous mark
+    private long turnStart;
+    private int round = Integer.MIN_VALUE;
+    private int lastTurn = -1;
+    private long skippedTurns;
+
+    // ── flight recorder (FlightRecording) ──────────────────────────────
+    private final String bot;
+    private final long[] stageNanos = new long[STAGES]; // this turn
+    private FlightRecording.Turn event; // null unless recording
+    private int eventRound, eventTurn, eventEnemies;
+
+    // ── CSV export (null when off) ─────────────────────────────────────
+    private final CsvWriter csv;
+    private Interval window;
+
+    /** {@code bot} names the bot in flight recorder events. */
+    TurnProfiler(Path csvFile, String bot) throws IOException {
+        this.bot = bot;
+        if (csvFile == null) {
+            csv = null;
+        } else {
+            csv = new CsvWriter(csvFile);
+            window = new Interval();
+            csv.start();
+        }
+    }
+
+    // ── recording (bot thread) ─────────────────────────────────────────
+    /** Starts a turn with {@code enemies} tracked; counts skipped turns and rolls the CSV window. */
+    void beginTurn(int round, int turn, int enemies) {
+        if (FlightRecording.on) {
+            event = FlightRecording.Turn.start();
+            eventRound = round;
+            eventTurn = turn;
+            eventEnemies = enemies;
+        }
+        long now = System.nanoTime();
+        turnStart = last = now;
+
+        if (round != this.round) {
+            if (csv != null && window.turns > 0 && !handOff(now, true))
+                window.reset(); // writer stuck: lose the window rather than merge two rounds
+            this.round = round;
+            lastTurn = -1; // turn numbers restart; the first turn seen is never a skip
+        }
+        int skipped = lastTurn >= 0 && turn > lastTurn + 1 ? turn - lastTurn - 1 : 0;
+        lastTurn = turn;
+        skippedTurns += skipped;
+
+        if (csv != null) {
+            Interval w = window;
+            if (w.turns == 0) {
+                w.round = round;
+                w.firstTurn = turn;
+                w.startNanos = now;
+            }
+            w.lastTurn = turn;
+            w.turns++;
+            w.skipped += skipped;
+            if (w.turns >= CSV_WINDOW_TURNS)
+                handOff(now, false);
+        }
+
+        if (++sinceSummary >= SUMMARY_TURNS) {
+            sinceSummary = 0;
+            summarize();
+        }
+    }
+
+    /** Records the time since the previous mark as {@code stage}. */
+    void mark(int stage) {
+        long now = System.nanoTime();
+        long d = now - last;
+        total[stage].record(d);
+        stageNanos[stage] = d;
+        if (stage == GO) // everything before go() is the turn's own work
+            total[WORK].record(last - turnStart);
+        if (csv != null) {
+            window.hist[stage].record(d);
+            if (stage == GO)
+                window.hist[WORK].record(last - turnStart);
+        }
+        if (stage == GO && event != null) {
+            event.end(bot, eventRound, eventTurn, eventEnemies, stageNanos, last - turnStart);
+            event = null;
+        }
+        last = now;
+    }
+
+    // ── HUD summary ────────────────────────────────────────────────────
+    /** Copies p50/p99/max per stage, {@link #SUMMARY_WIDTH} values each, into {@code dst}. */
+    void summaryInto(long[] dst) {
+        System.arraycopy(summary, 0, dst, 0, summary.length);
+    }
+
+    long skippedTurns() {
+        return skippedTurns;
+    }
+
+    private void summarize() {
+        for (int s = 0; s < STAGES; s++) {
+            LatencyHistogram h = total[s];
+            summary[s * SUMMARY_WIDTH] = h.percentile(0.50);
+            summary[s * SUMMARY_WIDTH + 1] = h.percentile(0.99);
+            summary[s * SUMMARY_WIDTH + 2] = h.max();
+        }
+    }
+
+    // ── CSV window hand-off ────────────────────────────────────────────
+    /** Game end: hands the unfinished window to the writer. */
+    void flush() {
+        if (csv != null && window.turns > 0)
+            handOff(System.nanoTime(), true);
+    }
+
+    /** Exit, or the end of the bot's only game: flush(), then waits for the row to be written and stops the writer. */
+    void close() {
+        if (csv == null)
+            return;
+        flush();
+        csv.close();
+    }
+
+    /**
+     * Swaps the current window with the spare; returns false if the writer
+     * still holds the spare, after waiting up to HANDOFF_WAIT_MILLIS for it
+     * if {@code wait} is set.
+     */
+    private boolean handOff(long now, boolean wait) {
+        long deadline = now + HANDOFF_WAIT_MILLIS * 1_000_000;
+        while (csv.spare == null || csv.full != null) {
+            if (!wait || csv.stopped || System.nanoTime() - deadline > 0)
+                return false; // writer still busy: the caller keeps growing or drops this window
+            LockSupport.parkNanos(100_000);
+        }
+        Interval spare = csv.spare;
+        window.endNanos = now;
+        csv.spare = null;
+        csv.full = window;
+        window = spare;
+        LockSupport.unpark(csv.thread);
+        return true;
+    }
+
+    private static LatencyHistogram[] histograms() {
+        LatencyHistogram[] h = new LatencyHistogram[STAGES];
+        for (int i = 0; i < STAGES; i++)
+            h[i] = new LatencyHistogram();
+        return h;
+    }
+
+    /** One CSV row worth of turns. */
+    private static final class Interval {
+        final LatencyHistogram[] hist = histograms();
+        int round, firstTurn, lastTurn, turns;
+        long skipped;
+        long startNanos, endNanos;
+
+        void reset() {
+            for (LatencyHistogram h : hist)
+                h.reset();
+            turns = 0;
+            skipped = 0;
+        }
+    }
+
+    /**
+     * Appends one row per finished window. Rows are flushed as they are
+     * written, and runs append to the same file (the header is only written
+     * to an empty file), so several builds or TPS settings can be compared
+     * from a single CSV; the session column tells the runs apart.
+     */
+    private static final class CsvWriter implements Runnable {
+        final Thread thread = new Thread(this, "PlayerBot latency CSV");
+        volatile Interval spare = new Interval(); // handed back once written
+        volatile Interval full; // waiting to be written
+        volatile boolean closing; // write what is full, then stop
+        volatile boolean stopped; // closed, or the file failed
+        private final BufferedWriter out;
+        private final long session = System.currentTimeMillis();
+
+        CsvWriter(Path file) throws IOException {
+            boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            if (fresh) {
+                out.write("session,wall_ms,round,first_turn,last_turn,turns,turns_per_sec,skipped_turns");
+                for (String n : STAGE_NAMES)
+                    out.write("," + n + "_p50_us," + n + "_p99_us," + n + "_max_us");
+                out.newLine();
+                out.flush();
+            }
+            thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        /** Writes what has been handed off and stops; later windows are not written. */
+        void close() {
+            closing = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Interval w = full;
+                    if (w == null) {
+                        if (closing)
+                            break;
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    write(w);
+                    w.reset();
+                    full = null;
+                    spare = w;
+                }
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Latency CSV disabled: " + e.getMessage());
+                // spare is never handed back, so recording stops too
+            } finally {
+                stopped = true;
+            }
+        }
+
+        private void write(Interval w) throws IOException {
+            double seconds = (w.endNanos - w.startNanos) / 1e9;
+            StringBuilder sb = new StringBuilder(256);
+            sb.append(session).append(',').append(System.currentTimeMillis())
+                    .append(',').append(w.round).append(',').append(w.firstTurn).append(',').append(w.lastTurn)
+                    .append(',').append(w.turns)
+                    .append(',').append(String.format(Locale.ROOT, "%.1f", seconds > 0 ? w.turns / seconds : 0))
+                    .append(',').append(w.skipped);
+            for (LatencyHistogram h : w.hist) {
+                sb.append(',').append(micros(h.percentile(0.50)))
+                        .append(',').append(micros(h.percentile(0.99)))
+                        .append(',').append(micros(h.max()));
+            }
+            out.write(sb.toString());
+            out.newLine();
+            out.flush();
+        }
+
+        private static String micros(long nanos) {
+            return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+        }
+    }
+}
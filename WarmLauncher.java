@@ -0,0 +1,130 @@
+import java.awt.event.KeyEvent;
+
+import dev.robocode.tankroyale.botapi.BotException;
+
+/*
+ * Resident bot (--persistent) and the warm-up pass before the first
+ * connect (--warm-up).
+ *
+ * A process started per match pays for class loading, the bot API's
+ * WebSocket and JSON set-up and a cold JIT during the first few hundred
+ * turns, exactly when reaction time counts. A resident bot keeps one JVM
+ * instead. The server keeps a bot's connection open from game to game, so
+ * one PlayerBot plays every game on it and forgets the last one in
+ * onGameStarted (enemies, filters, waves, trails, the event list, the fire
+ * cooldown). When the connection closes (server restarted, bot removed) or
+ * cannot be opened, resident() connects again after RETRY_MIN_MILLIS,
+ * doubling the wait up to RETRY_MAX_MILLIS while the server stays away. The
+ * bot API cannot reopen a connection, so every connection gets a new
+ * PlayerBot, which takes over the HUD window, render thread, keys,
+ * settings, profiler, event ring and logs of the one before. The HUD
+ * window is built before the first connect (--fast-start does not apply),
+ * recordings get one file per game ("match-3.rec" for the third) and the
+ * event log runs on across games.
+ *
+ * warmUp() plays a throwaway headless bot against an in-process
+ * StandInServer for --warm-up turns: WARM_UP_ENEMIES scanned every turn,
+ * aim assist on and a key pattern that drives, turns the gun and fires. By
+ * the time the first real tick arrives, the bot API, JSON, tracking,
+ * filters, waves, radar, aim and the controls are loaded and compiled. It
+ * writes no files. HUD painting is left out: it runs on the render thread,
+ * off the turn path, and warms up there during the first game.
+ */
+final class WarmLauncher {
+
+    static final int DEFAULT_TURNS = 3000;
+    private static final int WARM_UP_ENEMIES = 10;
+    private static final int KEY_PERIOD = 12; // turns per key set of the warm-up pattern
+    private static final int[][] KEY_PATTERN = { { KeyEvent.VK_W, KeyEvent.VK_A },
+            { KeyEvent.VK_W, KeyEvent.VK_D, KeyEvent.VK_SPACE }, { KeyEvent.VK_S, KeyEvent.VK_Q },
+            { KeyEvent.VK_W, KeyEvent.VK_E, KeyEvent.VK_SHIFT, KeyEvent.VK_SPACE }, { KeyEvent.VK_R },
+            { KeyEvent.VK_W, KeyEvent.VK_F, KeyEvent.VK_ENTER }, {} };
+    private static final int REPORT_TURNS = 500; // turn time is reported over the first and last this many
+    private static final long RETRY_MIN_MILLIS = 1000, RETRY_MAX_MILLIS = 16_000;
+
+    private WarmLauncher() {
+    }
+
+    // ── warm-up ────────────────────────────────────────────────────────
+    /** Plays {@code options.warmUpTurns} turns against a stand-in server and reports how the turn time fell. */
+    static void warmUp(LaunchOptions options) {
+        int turns = options.warmUpTurns;
+        LaunchOptions o = new LaunchOptions();
+        o.headless = true;
+        o.aimAssist = true;
+        o.noKalman = options.noKalman;
+        o.radarMode = options.radarMode;
+        long start = System.nanoTime(), first = 0, last = 0;
+        Thread thread = null;
+        try (StandInServer server = new StandInServer(WARM_UP_ENEMIES)) {
+            o.serverUrl = server.url();
+            o.serverSecret = "warm-up";
+            PlayerBot bot = new PlayerBot(o, "PlayerBot warm-up");
+            thread = new Thread(bot::start, "PlayerBot warm-up");
+            thread.setDaemon(true);
+            thread.start();
+            server.accept(30_000);
+            ScriptedInput keys = pattern(turns);
+            for (int turn = 1; turn <= turns; turn++) {
+                keys.apply(turn, bot.keys());
+                long nanos = server.turn(turn);
+                if (nanos < 0)
+                    throw new java.io.IOException("Bot disconnected at turn " + turn);
+                if (turn <= REPORT_TURNS)
+                    first += nanos;
+                if (turn > turns - REPORT_TURNS)
+                    last += nanos;
+            }
+        } catch (java.io.IOException | RuntimeException e) {
+            System.err.println("Warm-up stopped: " + e.getMessage());
+            return;
+        }
+        try {
+            thread.join(5000); // until the bot API has let go of the stand-in connection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int n = Math.min(REPORT_TURNS, turns);
+        System.out.printf("Warm-up: %d turns in %d ms; turn %d us over the first %d, %d us over the last %d%n",
+                turns, (System.nanoTime() - start) / 1_000_000, first / 1000 / Math.max(1, n), n,
+                last / 1000 / Math.max(1, n), n);
+    }
+
+    /** KEY_PATTERN, KEY_PERIOD turns per key set, repeated over {@code turns}. */
+    private static ScriptedInput pattern(int turns) {
+        int steps = Math.max(1, (turns + KEY_PERIOD - 1) / KEY_PERIOD);
+        int[] at = new int[steps];
+        int[][] sets = new int[steps][];
+        for (int i = 0; i < steps; i++) {
+            at[i] = 1 + i * KEY_PERIOD;
+            sets[i] = KEY_PATTERN[i % KEY_PATTERN.length];
+        }
+        return ScriptedInput.of(at, sets);
+    }
+
+    // ── resident bot ───────────────────────────────────────────────────
+    /** Plays every game the server starts, reconnecting whenever the connection is lost; returns only when interrupted. */
+    static void resident(LaunchOptions options) {
+        LaunchOptions o = options.copy();
+        o.fastStart = false; // the JVM is warm; build the window before connecting
+        PlayerBot bot = null;
+        long retry = RETRY_MIN_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            bot = new PlayerBot(o, null, bot);
+            long wait = retry;
+            try {
+                bot.start(); // returns when the connection closes
+                wait = retry = RETRY_MIN_MILLIS;
+                System.out.println("Disconnected from " + o.serverUrl + "; reconnecting in " + wait + " ms");
+            } catch (BotException e) {
+                retry = Math.min(retry * 2, RETRY_MAX_MILLIS);
+                System.err.println(e.getMessage() + "; retrying in " + wait + " ms");
+            }
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
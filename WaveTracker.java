@@ -0,0 +1,241 @@
+/*
+ * Enemy shots inferred from scan energy drops, tracked as expanding waves.
+ *
+ * Firing costs a bot exactly its bullet power in energy, 0.1 to 3. When two
+ * scans of the same enemy a few turns apart show a drop in that range, once
+ * what we know it lost or gained otherwise is taken out (our hits on it, its
+ * hits on us, rams, a wall hit), it is taken as a shot. Each shot becomes a
+ * wave: origin, fire turn and bullet speed 20 - 3·power. Its radius grows by
+ * that speed every turn, and once the wave has swept past us it can no
+ * longer hit and is culled. Hits we cannot see, enemies shooting each other
+ * in melee, make the odd false wave; they expire like any other.
+ *
+ * Waves live in a fixed pool of parallel primitive arrays with the live ones
+ * packed at the front. Spawning is a few array stores and culling a swap
+ * with the last live wave, so neither allocates however many enemies fire;
+ * when the pool is full the oldest wave makes room. advance() also keeps the
+ * THREATS waves closest to reaching us, for the HUD and compass.
+ *
+ * Bot thread only, except newRound(), which runs between rounds.
+ */
+final class WaveTracker {
+
+    static final int CAPACITY = 1024;
+    static final int THREATS = 4; // nearest waves kept for the HUD
+    private static final double MIN_POWER = 0.1, MAX_POWER = 3.0;
+    private static final double EPSILON = 1e-6; // energies arrive rounded
+    private static final int MAX_SCAN_GAP = 8; // turns; over longer gaps several shots could blur into one
+    private static final double BOT_RADIUS = 18;
+    private static final double RAM_DAMAGE = 0.6;
+    private static final double WALL_MARGIN = BOT_RADIUS + 2;
+
+    // ── per enemy, by bot id ───────────────────────────────────────────
+    private boolean[] seen = new boolean[16];
+    private int[] lastTurn = new int[16];
+    private double[] lastEnergy = new double[16], lastX = new double[16], lastY = new double[16];
+    private double[] lastSpeed = new double[16];
+    private double[] adjust = new double[16]; // known energy loss since the last scan that was not a shot
+
+    // ── wave pool; [0, count) live ─────────────────────────────────────
+    private final int[] shooter = new int[CAPACITY], fireTurn = new int[CAPACITY];
+    private final double[] originX = new double[CAPACITY], originY = new double[CAPACITY];
+    private final double[] speed = new double[CAPACITY], power = new double[CAPACITY];
+    private int count;
+    private long spawned, evicted;
+
+    // ── nearest threats from the last advance(), by turns to impact ────
+    private int threats;
+    private final int[] threatShooter = new int[THREATS], threatWave = new int[THREATS];
+    private final double[] threatTurns = new double[THREATS], threatBearing = new double[THREATS];
+    private final double[] threatPower = new double[THREATS];
+
+    // ── scans and energy corrections ───────────────────────────────────
+    /**
+     * Feeds one scan of enemy {@code id} and spawns a wave if its energy
+     * dropped by a bullet's power since the previous scan. The wave starts
+     * where the enemy was last seen, on the latest turn the shot can have
+     * been fired, which keeps it alive longest.
+     */
+    void scan(int id, int turn, double energy, double x, double y, double speed, int arenaWidth,
+            int arenaHeight) {
+        if (id < 0)
+            return;
+        ensure(id);
+        if (seen[id] && turn > lastTurn[id] && turn - lastTurn[id] <= MAX_SCAN_GAP) {
+            double drop = lastEnergy[id] - energy - adjust[id];
+            double v = Math.abs(lastSpeed[id]);
+            if (speed == 0 && v > 2 && nearWall(x, y, arenaWidth, arenaHeight))
+                drop -= v / 2 - 1; // stopped by a wall, which costs |v|/2 - 1
+            if (drop >= MIN_POWER - EPSILON && drop <= MAX_POWER + EPSILON)
+                spawn(id, turn - 1, lastX[id], lastY[id], Math.max(MIN_POWER, Math.min(MAX_POWER, drop)));
+        }
+        seen[id] = true;
+        lastTurn[id] = turn;
+        lastEnergy[id] = energy;
+        lastX[id] = x;
+        lastY[id] = y;
+        lastSpeed[id] = speed;
+        adjust[id] = 0;
+    }
+
+    /** Our bullet hit {@code id} for {@code damage}. */
+    void damaged(int id, double damage) {
+        if (id >= 0) {
+            ensure(id);
+            adjust[id] += damage;
+        }
+    }
+
+    /** A bullet of {@code id} with {@code power} hit us; the shooter gains three times the power. */
+    void hitUs(int id, double power) {
+        if (id >= 0) {
+            ensure(id);
+            adjust[id] -= 3 * power;
+        }
+    }
+
+    /** We collided with {@code id}; both sides lose the ram damage. */
+    void rammed(int id) {
+        if (id >= 0) {
+            ensure(id);
+            adjust[id] += RAM_DAMAGE;
+        }
+    }
+
+    /** Drops every wave and scan; turn numbers restart at each round. */
+    void newRound() {
+        java.util.Arrays.fill(seen, false);
+        java.util.Arrays.fill(adjust, 0);
+        count = 0;
+        threats = 0;
+    }
+
+    // ── per turn ───────────────────────────────────────────────────────
+    /**
+     * Grows every wave to {@code turn}, culls those that have passed a bot
+     * at (x, y), and keeps the THREATS nearest to reaching it.
+     */
+    void advance(int turn, double x, double y) {
+        int k = 0;
+        for (int i = 0; i < count;) {
+            double dx = x - originX[i], dy = y - originY[i];
+            double ahead = Math.sqrt(dx * dx + dy * dy) - speed[i] * (turn - fireTurn[i]);
+            if (ahead < -BOT_RADIUS) { // past our far side
+                remove(i);
+                continue;
+            }
+            double turns = Math.max(0, ahead - BOT_RADIUS) / speed[i];
+            if (k < THREATS || turns < threatTurns[k - 1]) {
+                // insertion into the short sorted list
+                int j = k < THREATS ? k++ : k - 1;
+                for (; j > 0 && threatTurns[j - 1] > turns; j--) {
+                    threatTurns[j] = threatTurns[j - 1];
+                    threatWave[j] = threatWave[j - 1];
+                }
+                threatTurns[j] = turns;
+                threatWave[j] = i;
+            }
+            i++;
+        }
+        for (int j = 0; j < k; j++) {
+            int i = threatWave[j];
+            threatShooter[j] = shooter[i];
+            threatPower[j] = power[i];
+            threatBearing[j] = AngleMath.bearingDeg(originY[i] - y, originX[i] - x);
+        }
+        threats = k;
+    }
+
+    // ── readers ────────────────────────────────────────────────────────
+    /** Live waves. */
+    int count() {
+        return count;
+    }
+
+    /** Waves spawned since the start. */
+    long spawned() {
+        return spawned;
+    }
+
+    /** Waves dropped early because the pool was full. */
+    long evicted() {
+        return evicted;
+    }
+
+    /** Threats found by the last advance(), at most THREATS. */
+    int threats() {
+        return threats;
+    }
+
+    /** Turns until threat {@code k} (0 = nearest) reaches us; 0 once it overlaps us. */
+    double threatTurns(int k) {
+        return threatTurns[k];
+    }
+
+    /** Bearing from us to the point threat {@code k} was fired from, degrees [0,360). */
+    double threatBearing(int k) {
+        return threatBearing[k];
+    }
+
+    double threatPower(int k) {
+        return threatPower[k];
+    }
+
+    int threatShooter(int k) {
+        return threatShooter[k];
+    }
+
+    // ── pool ───────────────────────────────────────────────────────────
+    private void spawn(int id, int turn, double x, double y, double p) {
+        int i = count;
+        if (i == CAPACITY) {
+            i = oldest();
+            evicted++;
+        } else {
+            count++;
+        }
+        shooter[i] = id;
+        fireTurn[i] = turn;
+        originX[i] = x;
+        originY[i] = y;
+        power[i] = p;
+        speed[i] = 20 - 3 * p;
+        spawned++;
+    }
+
+    /** Moves the last live wave into slot {@code i}. */
+    private void remove(int i) {
+        int last = --count;
+        shooter[i] = shooter[last];
+        fireTurn[i] = fireTurn[last];
+        originX[i] = originX[last];
+        originY[i] = originY[last];
+        power[i] = power[last];
+        speed[i] = speed[last];
+    }
+
+    private int oldest() {
+        int o = 0;
+        for (int i = 1; i < count; i++)
+            if (fireTurn[i] < fireTurn[o])
+                o = i;
+        return o;
+    }
+
+    private static boolean nearWall(double x, double y, int w, int h) {
+        return x < WALL_MARGIN || y < WALL_MARGIN || x > w - WALL_MARGIN || y > h - WALL_MARGIN;
+    }
+
+    private void ensure(int id) {
+        if (id < seen.length)
+            return;
+        int cap = Math.max(id + 1, seen.length * 2);
+        seen = java.util.Arrays.copyOf(seen, cap);
+        lastTurn = java.util.Arrays.copyOf(lastTurn, cap);
+        lastEnergy = java.util.Arrays.copyOf(lastEnergy, cap);
+        lastX = java.util.Arrays.copyOf(lastX, cap);
+        lastY = java.util.Arrays.copyOf(lastY, cap);
+        lastSpeed = java.util.Arrays.copyOf(lastSpeed, cap);
+        adjust = java.util.Arrays.copyOf(adjust, cap);
+    }
+}
@@ -0,0 +1,398 @@
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+
+/*
+ * Probes implementation in the unnamed package, so it can reach the
+ * package-private bot classes. See playerbot.bench.Probes.
+ */
+public final class BenchProbes implements playerbot.bench.Probes {
+
+    private final EnemyTracker tracker = new EnemyTracker();
+    private final HudSnapshot snapshot = new HudSnapshot(20);
+    private final HudText hudText = new HudText();
+    private int enemyCount;
+
+    private final AimAssist aim = new AimAssist();
+    private final KalmanBank filters = new KalmanBank();
+
+    private final double[] bearings = new double[ANGLES], vx = new double[ANGLES], vy = new double[ANGLES];
+    private final double[] rawAngles = new double[ANGLES];
+    private final int[] screenX = new int[ANGLES], screenY = new int[ANGLES];
+
+    private final WaveTracker waves = new WaveTracker();
+    private int waveTurn;
+
+    private final EventRing events = new EventRing(4096);
+    private final HudText.CharBuf eventLine = new HudText.CharBuf(128);
+
+    private CompassPanel compass;
+    private MinimapPanel minimap;
+    private TrailStore trails, frameTrails;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    private Canvas keySource;
+    private final KeyState keys = new KeyState();
+    private final KeyEvent[] pressEvents = new KeyEvent[KeyState.MAX_CODE];
+    private final KeyEvent[] releaseEvents = new KeyEvent[KeyState.MAX_CODE];
+
+    public BenchProbes() {
+    }
+
+    // ── onScannedBot smoothing ─────────────────────────────────────────
+    @Override
+    public void scan(int id, int turn, double bearing, boolean average) {
+        tracker.scan(id, turn, 100 + id, 200 + id, 80, 45, 8, bearing, average, 0.15);
+    }
+
+    // ── Kalman tracking ────────────────────────────────────────────────
+    @Override
+    public void kalmanSetup(int enemies) {
+        enemyCount = enemies;
+        tracker.clear();
+        for (int id = 1; id <= enemies; id++) {
+            filters.update(id, 1, 1, 40 + (id * 97) % 720, 40 + (id * 53) % 520, id * 29 % 360, 8);
+            tracker.scan(id, 1, 40 + (id * 97) % 720, 40 + (id * 53) % 520, 100, id * 29 % 360, 8, 0, false, 0);
+        }
+    }
+
+    @Override
+    public void kalmanUpdate(int id, int turn) {
+        filters.update(id, 1, turn, 100 + (turn % 50), 200 - (turn % 50), (turn * 7) % 360, 8);
+    }
+
+    @Override
+    public double kalmanTrack(int turn) {
+        tracker.track(filters, 1, turn, 400, 300, 800, 600, true);
+        return tracker.confidence(1);
+    }
+
+    // ── HUD text ───────────────────────────────────────────────────────
+    @Override
+    public void hudSetup(int enemies) {
+        enemyCount = enemies;
+        tracker.clear();
+        fill(1);
+        snapshot.events.clear();
+        snapshot.events.add(EventRing.ROUND_STARTED, 1, 0);
+        snapshot.events.add(EventRing.HIT_WALL, 1, 1);
+    }
+
+    @Override
+    public String hudFrame(int turn, boolean moving) {
+        if (moving)
+            fill(turn);
+        hudText.frame(snapshot, tracker);
+        String info = hudText.takeInfoText();
+        hudText.takeEventText();
+        return info;
+    }
+
+    // ── event ring ─────────────────────────────────────────────────────
+    @Override
+    public void eventSetup() {
+        events.clear();
+        for (int i = 0; i < events.capacity(); i++)
+            events.add(i % EventRing.TYPES, 1, i, i % 10, i * 0.5, 1.8);
+    }
+
+    @Override
+    public void eventAdd(int turn) {
+        events.add(EventRing.HIT_BY_BULLET, 1, turn, 3, 45.5, 1.8);
+    }
+
+    @Override
+    public int eventFormat(int turn) {
+        HudText.CharBuf b = eventLine;
+        b.len = 0;
+        events.format(events.written() - 1 - (turn & 15), b);
+        return b.len;
+    }
+
+    // ── compass ────────────────────────────────────────────────────────
+    @Override
+    public void compassSetup(int enemies, int width, int height) {
+        enemyCount = enemies;
+        tracker.clear();
+        fill(1);
+        compass = new CompassPanel();
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+
+    @Override
+    public void compassFrame(int turn) {
+        fill(turn);
+        compass.draw(graphics, image.getWidth(), image.getHeight(), snapshot, tracker);
+    }
+
+    // ── minimap ────────────────────────────────────────────────────────
+    @Override
+    public void minimapSetup(int enemies, int width, int height) {
+        enemyCount = enemies;
+        tracker.clear();
+        trails = new TrailStore();
+        frameTrails = new TrailStore();
+        minimap = new MinimapPanel();
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        for (int t = 1 - TrailStore.LENGTH; t <= 0; t++) // the benchmark carries on from turn 1
+            minimapFrame(t, false);
+    }
+
+    @Override
+    public void minimapFrame(int turn, boolean full) {
+        fill(turn);
+        for (int id = 1; id <= enemyCount; id++) { // circles at 8 units per turn, as in StandInServer
+            double radius = 60 + (id % 8) * 30;
+            double a = id * 2.4 + turn * 8 / radius;
+            trails.add(id, 400 + radius * Math.cos(a), 300 + radius * Math.sin(a));
+        }
+        trails.add(TrailStore.SELF, snapshot.x, snapshot.y);
+        trails.readInto(frameTrails);
+        if (full)
+            minimap.redrawTrails();
+        minimap.draw(graphics, image.getWidth(), image.getHeight(), snapshot, tracker, frameTrails);
+    }
+
+    // ── aim assist ─────────────────────────────────────────────────────
+    @Override
+    public void aimSetup(int enemies) {
+        enemyCount = enemies;
+        tracker.clear();
+        for (int id = 1; id <= enemies; id++) {
+            double x = 40 + (id * 97) % 720, y = 40 + (id * 53) % 520;
+            double rate = id % 3 == 0 ? 0 : (id % 2 == 0 ? 4 : -6); // every third bot drives straight
+            tracker.scan(id, 1, x, y, 100, id * 29 % 360, 8, 0, false, 0);
+            tracker.scan(id, 2, x, y, 100, (id * 29 + rate) % 360, 8, 0, false, 0);
+        }
+    }
+
+    @Override
+    public int aimSolve(int turn) {
+        aim.solve(tracker, 2 + turn % 20, 400, 300, 800, 600);
+        return aim.target(AimAssist.LOW);
+    }
+
+    /** Own state plus one scan per enemy, varying with {@code turn}. */
+    private void fill(int turn) {
+        HudSnapshot s = snapshot;
+        s.round = 1;
+        s.rounds = 10;
+        s.turn = turn;
+        s.arenaWidth = 800;
+        s.arenaHeight = 600;
+        s.energy = 100 - (turn % 1000) * 0.1;
+        s.x = 400 + (turn % 100);
+        s.y = 300 - (turn % 100);
+        s.heading = (turn * 3.7) % 360;
+        s.gunHeading = (turn * 5.3) % 360;
+        s.radarHeading = (turn * 45.0) % 360;
+        s.gunHeat = (turn % 16) * 0.1;
+        s.speed = turn % 9;
+        for (int id = 1; id <= enemyCount; id++) {
+            double bearing = (id * 37 + turn * 1.3) % 360;
+            tracker.scan(id, turn - (id % 70), 50 + id * 10 + (turn % 7), 60 + id * 7, 100 - id,
+                    (turn + id) % 360, id % 9, bearing, true, 0.15);
+        }
+    }
+
+    // ── enemy waves ────────────────────────────────────────────────────
+    private static final int WAVE_SHOT_INTERVAL = 4;
+
+    @Override
+    public void waveSetup(int enemies) {
+        enemyCount = enemies;
+        waves.newRound();
+        waveTurn = 0;
+        for (int t = 0; t < 200; t++)
+            waveTurn();
+    }
+
+    @Override
+    public int waveTurn() {
+        int turn = ++waveTurn;
+        for (int id = 1; id <= enemyCount; id++) {
+            double x = 40 + (id * 97) % 720, y = 40 + (id * 53) % 520;
+            double energy = 100 - 2 * ((turn + id) / WAVE_SHOT_INTERVAL % 40); // a shot every few turns, staggered
+            waves.scan(id, turn, energy, x, y, 8, 800, 600);
+        }
+        waves.advance(turn, 400, 300);
+        return waves.count();
+    }
+
+    @Override
+    public int waveAdvance() {
+        waves.advance(waveTurn, 400, 300);
+        return waves.threats();
+    }
+
+    // ── angle math ─────────────────────────────────────────────────────
+    @Override
+    public double sinDeg(double deg) {
+        return AngleMath.sinDeg(deg);
+    }
+
+    @Override
+    public double cosDeg(double deg) {
+        return AngleMath.cosDeg(deg);
+    }
+
+    @Override
+    public double atan2Deg(double y, double x) {
+        return AngleMath.atan2Deg(y, x);
+    }
+
+    @Override
+    public double normalizeRelative(double angle) {
+        return AngleMath.normalizeRelative(angle);
+    }
+
+    @Override
+    public double normalizeAbsolute(double angle) {
+        return AngleMath.normalizeAbsolute(angle);
+    }
+
+    @Override
+    public void toScreen(double[] deg, int n, int cx, int cy, double radius, int[] x, int[] y) {
+        AngleMath.toScreen(deg, n, cx, cy, radius, x, y);
+    }
+
+    @Override
+    public void angleSetup() {
+        java.util.Random rnd = new java.util.Random(42);
+        for (int k = 0; k < ANGLES; k++) {
+            bearings[k] = rnd.nextDouble() * 360;
+            vx[k] = rnd.nextGaussian() * 300;
+            vy[k] = rnd.nextGaussian() * 300;
+            rawAngles[k] = (rnd.nextDouble() - 0.5) * 2000; // up to a few turns away from the range
+        }
+    }
+
+    @Override
+    public double angleSinCos(boolean fast) {
+        double sum = 0;
+        if (fast) {
+            for (int k = 0; k < ANGLES; k++)
+                sum += AngleMath.cosDeg(bearings[k]) + AngleMath.sinDeg(bearings[k]);
+        } else {
+            for (int k = 0; k < ANGLES; k++) {
+                double rad = Math.toRadians(bearings[k]);
+                sum += Math.cos(rad) + Math.sin(rad);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double angleAtan2(boolean fast) {
+        double sum = 0;
+        if (fast) {
+            for (int k = 0; k < ANGLES; k++)
+                sum += AngleMath.bearingDeg(vy[k], vx[k]);
+        } else {
+            for (int k = 0; k < ANGLES; k++) {
+                double a = Math.toDegrees(Math.atan2(vy[k], vx[k]));
+                sum += a < 0 ? a + 360 : a;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double angleNormalize(boolean fast) {
+        double sum = 0;
+        if (fast) {
+            for (int k = 0; k < ANGLES; k++)
+                sum += AngleMath.normalizeRelative(rawAngles[k]);
+        } else {
+            for (int k = 0; k < ANGLES; k++) {
+                double a = rawAngles[k];
+                while (a > 180)
+                    a -= 360;
+                while (a <= -180)
+                    a += 360;
+                sum += a;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public int angleToScreen(boolean fast) {
+        int cx = 300, cy = 300, radius = 270;
+        if (fast) {
+            AngleMath.toScreen(bearings, ANGLES, cx, cy, radius, screenX, screenY);
+        } else {
+            for (int k = 0; k < ANGLES; k++) {
+                double rad = Math.toRadians(bearings[k]);
+                screenX[k] = cx + (int) (radius * Math.cos(rad));
+                screenY[k] = cy - (int) (radius * Math.sin(rad));
+            }
+        }
+        return screenX[ANGLES - 1] + screenY[ANGLES / 2];
+    }
+
+    // ── utilities ──────────────────────────────────────────────────────
+
+    @Override
+    public void dispatchSetup() {
+        keySource = new Canvas();
+    }
+
+    @Override
+    public boolean dispatch(int keyCode, boolean press) {
+        KeyEvent[] cache = press ? pressEvents : releaseEvents;
+        KeyEvent e = cache[keyCode];
+        if (e == null) {
+            e = cache[keyCode] = new KeyEvent(keySource, press ? KeyEvent.KEY_PRESSED : KeyEvent.KEY_RELEASED,
+                    0L, 0, keyCode, KeyEvent.CHAR_UNDEFINED);
+        }
+        return PlayerBot.dispatch(keys, e);
+    }
+
+    @Override
+    public int drainKeys() {
+        keys.beginTurn();
+        return keys.edges();
+    }
+
+    // ── end to end ─────────────────────────────────────────────────────
+    @Override
+    public void runBot(String[] args) {
+        LaunchOptions options = LaunchOptions.parse(args);
+        if (options.jfrFile != null)
+            FlightRecording.start(java.nio.file.Paths.get(options.jfrFile));
+        new PlayerBot(options).start();
+    }
+
+    @Override
+    public Server standInServer(int enemies) throws java.io.IOException {
+        StandInServer server = new StandInServer(enemies);
+        return new Server() {
+            @Override
+            public String url() {
+                return server.url();
+            }
+
+            @Override
+            public void accept(int timeoutMillis) throws java.io.IOException {
+                server.accept(timeoutMillis);
+            }
+
+            @Override
+            public long turn(int turn) throws java.io.IOException {
+                return server.turn(turn);
+            }
+
+            @Override
+            public void close() throws java.io.IOException {
+                server.close();
+            }
+        };
+    }
+}
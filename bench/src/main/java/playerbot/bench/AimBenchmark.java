@@ -0,0 +1,32 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** AimAssist.solve: linear and circular intercepts for every tracked enemy, both powers. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AimBenchmark {
+
+    @Param({ "1", "10", "30", "50" })
+    int enemies;
+
+    private Probes probes;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.aimSetup(enemies);
+    }
+
+    @Benchmark
+    public int solve() {
+        return probes.aimSolve(++turn);
+    }
+}
@@ -0,0 +1,106 @@
+package playerbot.bench;
+
+import java.util.Random;
+
+/**
+ * Checks AngleMath against java.lang.Math and reports the worst error of
+ * each function next to the bound its documentation promises:
+ *
+ *   sinDeg/cosDeg      every 0.001° over two turns each way, plus random angles
+ *   atan2Deg           every 0.001° around the unit circle, plus random vectors
+ *   normalize*         random angles and values a few ulps around multiples of 180°
+ *   toScreen           every 0.01° on a 270 px circle, against the former drawDot
+ *
+ * Exits with status 1 if any bound is exceeded.
+ */
+public final class AngleAccuracy {
+
+    private static final double SIN_BOUND = 3e-7;
+    private static final double ATAN2_BOUND_DEG = 7e-4;
+
+    private static boolean failed;
+
+    private AngleAccuracy() {
+    }
+
+    public static void main(String[] args) {
+        Probes p = Probes.create();
+        Random rnd = new Random(7);
+
+        double sinErr = 0, cosErr = 0;
+        for (long k = -720_000; k <= 720_000; k++)
+            sinErr = Math.max(sinErr, sinCosError(p, k / 1000.0, true));
+        for (int k = 0; k < 1_000_000; k++)
+            sinErr = Math.max(sinErr, sinCosError(p, (rnd.nextDouble() - 0.5) * 1e5, true));
+        for (long k = -720_000; k <= 720_000; k++)
+            cosErr = Math.max(cosErr, sinCosError(p, k / 1000.0, false));
+        for (int k = 0; k < 1_000_000; k++)
+            cosErr = Math.max(cosErr, sinCosError(p, (rnd.nextDouble() - 0.5) * 1e5, false));
+        report("sinDeg", sinErr, SIN_BOUND, "");
+        report("cosDeg", cosErr, SIN_BOUND, "");
+
+        double atanErr = 0;
+        for (long k = 0; k < 360_000; k++) {
+            double rad = Math.toRadians(k / 1000.0);
+            atanErr = Math.max(atanErr, atan2Error(p, Math.sin(rad), Math.cos(rad)));
+        }
+        for (int k = 0; k < 2_000_000; k++)
+            atanErr = Math.max(atanErr, atan2Error(p, rnd.nextGaussian() * 500, rnd.nextGaussian() * 500));
+        report("atan2Deg", atanErr, ATAN2_BOUND_DEG, "deg");
+
+        int outOfRange = 0;
+        double normErr = 0;
+        for (int k = 0; k < 2_000_000; k++) {
+            double a = k % 2 == 0 ? (rnd.nextDouble() - 0.5) * 4000
+                    : (rnd.nextInt(41) - 20) * 180.0 + (rnd.nextInt(9) - 4) * Math.ulp(3600.0);
+            double rel = p.normalizeRelative(a), abs = p.normalizeAbsolute(a);
+            if (!(rel > -180 && rel <= 180) || !(abs >= 0 && abs < 360))
+                outOfRange++;
+            double ref = a; // the former loop
+            while (ref > 180)
+                ref -= 360;
+            while (ref <= -180)
+                ref += 360;
+            double d = Math.abs(rel - ref);
+            normErr = Math.max(normErr, Math.min(d, Math.abs(d - 360))); // ±180 at a range end counts as equal
+        }
+        report("normalizeRelative vs loop", normErr, 1e-9, "deg");
+        report("normalize* out of range", outOfRange, 0, "values");
+
+        int n = 36_000, cx = 300, cy = 300, radius = 270;
+        double[] deg = new double[n];
+        int[] x = new int[n], y = new int[n];
+        for (int k = 0; k < n; k++)
+            deg[k] = k / 100.0;
+        p.toScreen(deg, n, cx, cy, radius, x, y);
+        int moved = 0, worst = 0;
+        for (int k = 0; k < n; k++) {
+            double rad = Math.toRadians(deg[k]);
+            int dx = Math.abs(x[k] - (cx + (int) (radius * Math.cos(rad))));
+            int dy = Math.abs(y[k] - (cy - (int) (radius * Math.sin(rad))));
+            if (dx + dy > 0)
+                moved++;
+            worst = Math.max(worst, Math.max(dx, dy));
+        }
+        report("toScreen max pixel offset", worst, 1, "px");
+        System.out.printf("  (%d of %d points differ from the former drawDot)%n", moved, n);
+
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static double sinCosError(Probes p, double deg, boolean sin) {
+        double rad = Math.toRadians(deg);
+        return sin ? Math.abs(p.sinDeg(deg) - Math.sin(rad)) : Math.abs(p.cosDeg(deg) - Math.cos(rad));
+    }
+
+    private static double atan2Error(Probes p, double y, double x) {
+        double d = Math.abs(p.atan2Deg(y, x) - Math.toDegrees(Math.atan2(y, x)));
+        return Math.min(d, 360 - d); // 180 and -180 are the same direction
+    }
+
+    private static void report(String what, double worst, double bound, String unit) {
+        boolean ok = worst <= bound;
+        failed |= !ok;
+        System.out.printf("%-28s worst %-11.4g bound %-8.2g %-7s %s%n", what, worst, bound, unit, ok ? "ok" : "FAILED");
+    }
+}
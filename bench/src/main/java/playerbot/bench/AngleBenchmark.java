@@ -0,0 +1,53 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * AngleMath against java.lang.Math as the bot used to call it, per bearing:
+ * sin+cos of a bearing, atan2 to a [0,360) bearing, normalizeRelative of
+ * angles up to a few turns out of range, and compass points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OperationsPerInvocation(Probes.ANGLES)
+public class AngleBenchmark {
+
+    @Param({ "math", "table" })
+    String impl;
+
+    private Probes probes;
+    private boolean fast;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.angleSetup();
+        fast = impl.equals("table");
+    }
+
+    @Benchmark
+    public double sinCos() {
+        return probes.angleSinCos(fast);
+    }
+
+    @Benchmark
+    public double atan2() {
+        return probes.angleAtan2(fast);
+    }
+
+    @Benchmark
+    public double normalize() {
+        return probes.angleNormalize(fast);
+    }
+
+    @Benchmark
+    public int toScreen() {
+        return probes.angleToScreen(fast);
+    }
+}
@@ -0,0 +1,35 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** CompassPanel drawing one full frame into an offscreen image. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CompassBenchmark {
+
+    @Param({ "1", "10", "50" })
+    int enemies;
+
+    @Param({ "600" })
+    int size;
+
+    private Probes probes;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.compassSetup(enemies, size, size);
+    }
+
+    @Benchmark
+    public void paint() {
+        probes.compassFrame(++turn);
+    }
+}
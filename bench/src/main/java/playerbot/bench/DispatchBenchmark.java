@@ -0,0 +1,31 @@
+package playerbot.bench;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** A full key tap through dispatch (press + release) and the per-turn drain. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatchBenchmark {
+
+    private Probes probes;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.dispatchSetup();
+    }
+
+    @Benchmark
+    public int tap() {
+        probes.dispatch(KeyEvent.VK_SPACE, true);
+        probes.dispatch(KeyEvent.VK_SPACE, false);
+        return probes.drainKeys();
+    }
+}
@@ -0,0 +1,34 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** EventRing: logging one event from a callback, and formatting one for the HUD. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventBenchmark {
+
+    private Probes probes;
+    private int turn = 1;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.eventSetup();
+    }
+
+    @Benchmark
+    public void add() {
+        probes.eventAdd(++turn);
+    }
+
+    @Benchmark
+    public int format() {
+        return probes.eventFormat(++turn);
+    }
+}
@@ -0,0 +1,39 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * HUD text generation for one frame. "moving" changes every value each
+ * turn (worst case); otherwise the frame repeats and should cost only the
+ * change checks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HudTextBenchmark {
+
+    @Param({ "1", "10", "50" })
+    int enemies;
+
+    @Param({ "true", "false" })
+    boolean moving;
+
+    private Probes probes;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.hudSetup(enemies);
+    }
+
+    @Benchmark
+    public String frame() {
+        return probes.hudFrame(++turn, moving);
+    }
+}
@@ -0,0 +1,38 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** KalmanBank: one scan update, and the per-turn extrapolation of every tracked enemy. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KalmanBenchmark {
+
+    @Param({ "1", "10", "50" })
+    int enemies;
+
+    private Probes probes;
+    private int turn = 1;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.kalmanSetup(enemies);
+    }
+
+    @Benchmark
+    public void update() {
+        int t = ++turn;
+        probes.kalmanUpdate(t % enemies + 1, t);
+    }
+
+    @Benchmark
+    public double track() {
+        return probes.kalmanTrack(1 + (++turn % 60)); // scans 0 to 59 turns old
+    }
+}
@@ -0,0 +1,41 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * MinimapPanel drawing one frame into an offscreen image with every trail
+ * full: appending the turn's new segments ({@code trails=incremental}), or
+ * redrawing each trail from its ring ({@code trails=full}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MinimapBenchmark {
+
+    @Param({ "1", "10", "50" })
+    int enemies;
+
+    @Param({ "incremental", "full" })
+    String trails;
+
+    private Probes probes;
+    private boolean full;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.minimapSetup(enemies, 320, 240);
+        full = trails.equals("full");
+    }
+
+    @Benchmark
+    public void paint() {
+        probes.minimapFrame(++turn, full);
+    }
+}
@@ -0,0 +1,168 @@
+package playerbot.bench;
+
+import java.io.IOException;
+
+/**
+ * Entry points into the bot's hot paths.
+ *
+ * The bot lives in the unnamed package, which named packages cannot import
+ * and JMH refuses to generate benchmarks for. The implementation,
+ * {@code BenchProbes}, therefore sits in the unnamed package next to the bot
+ * classes and is loaded reflectively once per benchmark state; after that
+ * every call is an ordinary monomorphic interface call.
+ */
+public interface Probes {
+
+    static Probes create() {
+        try {
+            return (Probes) Class.forName("BenchProbes").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchProbes not on the class path", e);
+        }
+    }
+
+    // ── onScannedBot smoothing ─────────────────────────────────────────
+    /** Same tracker update onScannedBot performs for one scan. */
+    void scan(int id, int turn, double bearing, boolean average);
+
+    // ── Kalman tracking ────────────────────────────────────────────────
+    /** Prepares {@code enemies} filtered bots, scanned once each. */
+    void kalmanSetup(int enemies);
+
+    /** Folds one scan into a bot's filter, as onScannedBot does. */
+    void kalmanUpdate(int id, int turn);
+
+    /** Extrapolates every bot to {@code turn}, as the bot does each turn; returns one confidence. */
+    double kalmanTrack(int turn);
+
+    // ── HUD text ───────────────────────────────────────────────────────
+    /** Prepares a HUD state with {@code enemies} tracked bots. */
+    void hudSetup(int enemies);
+
+    /**
+     * Runs one HUD text frame. With {@code moving} every value changes each
+     * turn; otherwise the frame is identical to the previous one. Returns the
+     * new text, or null when the TextArea would not be touched.
+     */
+    String hudFrame(int turn, boolean moving);
+
+    // ── event ring ─────────────────────────────────────────────────────
+    /** Fills a bot-sized event ring with events of every type. */
+    void eventSetup();
+
+    /** Logs one event, as the API callbacks do. */
+    void eventAdd(int turn);
+
+    /** Formats one of the newest events, as the HUD does; returns its length. */
+    int eventFormat(int turn);
+
+    // ── compass ────────────────────────────────────────────────────────
+    /** Prepares a compass with {@code enemies} tracked bots and an offscreen image. */
+    void compassSetup(int enemies, int width, int height);
+
+    /** Draws one compass frame into the offscreen image. */
+    void compassFrame(int turn);
+
+    // ── minimap ────────────────────────────────────────────────────────
+    /** Prepares a minimap with {@code enemies} circling bots, their trails already full up to turn 0. */
+    void minimapSetup(int enemies, int width, int height);
+
+    /**
+     * Adds one turn of positions and draws one minimap frame into the
+     * offscreen image: appending the new trail segments, or with
+     * {@code full} redrawing every trail from its ring as a non-incremental
+     * minimap would.
+     */
+    void minimapFrame(int turn, boolean full);
+
+    // ── aim assist ─────────────────────────────────────────────────────
+    /** Prepares a tracker with {@code enemies} bots, all moving and most of them turning. */
+    void aimSetup(int enemies);
+
+    /** Solves every enemy for both powers, as the bot does each turn; returns the low-power target. */
+    int aimSolve(int turn);
+
+    // ── enemy waves ────────────────────────────────────────────────────
+    /**
+     * Prepares {@code enemies} bots scattered around us, each firing a
+     * power-2 shot every few turns, and plays until the live wave count has
+     * settled.
+     */
+    void waveSetup(int enemies);
+
+    /** Plays one melee turn: a scan of every enemy, then WaveTracker.advance; returns the live waves. */
+    int waveTurn();
+
+    /** WaveTracker.advance alone over the settled pool, at the current turn; returns the threats. */
+    int waveAdvance();
+
+    // ── angle math ─────────────────────────────────────────────────────
+    // single AngleMath calls, for AngleAccuracy
+    double sinDeg(double deg);
+
+    double cosDeg(double deg);
+
+    double atan2Deg(double y, double x);
+
+    double normalizeRelative(double angle);
+
+    double normalizeAbsolute(double angle);
+
+    void toScreen(double[] deg, int n, int cx, int cy, double radius, int[] x, int[] y);
+
+    /** Prepares ANGLES bearings, vectors and raw angles for the batch probes below. */
+    void angleSetup();
+
+    /** Bearings handled by one call of the batch probes. */
+    int ANGLES = 1024;
+
+    /**
+     * sin and cos of every bearing, with java.lang.Math the way the bot used
+     * to call it ({@code fast} false) or with AngleMath; returns a checksum.
+     * The other batch probes compare the same way.
+     */
+    double angleSinCos(boolean fast);
+
+    /** Bearing in [0,360) of every vector. */
+    double angleAtan2(boolean fast);
+
+    /** normalizeRelative of every raw angle: the former loop or AngleMath. */
+    double angleNormalize(boolean fast);
+
+    /** Compass points of every bearing: Math per point or one AngleMath.toScreen. */
+    int angleToScreen(boolean fast);
+
+    // ── utilities ──────────────────────────────────────────────────────
+
+    /** Prepares a key event source for {@link #dispatch}. */
+    void dispatchSetup();
+
+    /** Feeds one press or release through PlayerBot.dispatch. */
+    boolean dispatch(int keyCode, boolean press);
+
+    /** Drains queued key edges, as the bot does at the start of each turn. */
+    int drainKeys();
+
+    // ── end to end ─────────────────────────────────────────────────────
+    /** Runs a PlayerBot with the command-line {@code args} until it disconnects. */
+    void runBot(String[] args);
+
+    /** Listens on loopback for one bot that will see {@code enemies} scanned bots per tick. */
+    Server standInServer(int enemies) throws IOException;
+
+    /** The bot's StandInServer, which lives in the unnamed package too. */
+    interface Server extends AutoCloseable {
+
+        /** Server URL to give the bot. */
+        String url();
+
+        /** Waits for the bot, then runs handshake, game start and round start. */
+        void accept(int timeoutMillis) throws IOException;
+
+        /** Sends the tick for {@code turn}; returns nanoseconds until the intent, or -1 on disconnect. */
+        long turn(int turn) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+}
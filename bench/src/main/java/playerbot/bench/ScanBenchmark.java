@@ -0,0 +1,35 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** onScannedBot: one enemy tracker update, with the bearing EMA on and off. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScanBenchmark {
+
+    @Param({ "true", "false" })
+    boolean average;
+
+    @Param({ "10" })
+    int enemies;
+
+    private Probes probes;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+    }
+
+    @Benchmark
+    public void scan() {
+        int t = ++turn;
+        probes.scan(t % enemies + 1, t, (t * 7.3) % 360, average);
+    }
+}
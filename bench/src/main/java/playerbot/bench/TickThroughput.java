@@ -0,0 +1,140 @@
+package playerbot.bench;
+
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * End-to-end turn throughput: a real PlayerBot, with its bot API,
+ * WebSocket client and run() loop, against the bot's StandInServer on
+ * loopback, which sends the next tick as soon as an intent arrives.
+ *
+ * Runs the bot once per HUD setup (headless without a HUD, headless with
+ * the HUD log, and with the HUD window when there is a display), each for
+ * a warm-up and then the measured turns, and reports per setup:
+ *
+ *   turns/s    over all measured turns: the highest rate the loop sustains
+ *   worst      turns/s of the slowest window of consecutive turns
+ *   latency    tick sent to intent received, p50/p90/p99/p99.9/max
+ *
+ * Options: --enemies=N (scanned bots per tick, default 10), --turns=N
+ * (measured, default 20000), --warmup=N (default 5000), --hud=off|log|window
+ * (repeatable; default all that can run here). Anything else is passed to
+ * the bot, e.g. --radar=spin, --no-kalman or --latency-csv=turns.csv for
+ * the bot's own per-stage split.
+ */
+public final class TickThroughput {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    private TickThroughput() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int enemies = 10, turns = 20_000, warmup = 5_000;
+        List<String> huds = new ArrayList<>();
+        List<String> botArgs = new ArrayList<>();
+        for (String a : args) {
+            if (a.startsWith("--enemies="))
+                enemies = Integer.parseInt(a.substring("--enemies=".length()));
+            else if (a.startsWith("--turns="))
+                turns = Integer.parseInt(a.substring("--turns=".length()));
+            else if (a.startsWith("--warmup="))
+                warmup = Integer.parseInt(a.substring("--warmup=".length()));
+            else if (a.startsWith("--hud="))
+                huds.add(a.substring("--hud=".length()));
+            else
+                botArgs.add(a);
+        }
+        boolean display = !GraphicsEnvironment.isHeadless();
+        if (huds.isEmpty()) {
+            huds.add("off");
+            huds.add("log");
+            if (display)
+                huds.add("window");
+        }
+        System.out.printf("%d scanned bots per tick, %d warm-up + %d measured turns%n", enemies, warmup, turns);
+        for (String hud : huds) {
+            if (hud.equals("window") && !display) {
+                System.out.println("hud=window: skipped, no display");
+                continue;
+            }
+            run(hud, enemies, warmup, turns, botArgs);
+        }
+        System.exit(0); // HUD windows and render threads of the finished bots
+    }
+
+    private static void run(String hud, int enemies, int warmup, int turns, List<String> extra)
+            throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>();
+        args.add("-"); // URL, filled in below
+        args.add("stand-in");
+        File hudLog = null;
+        switch (hud) {
+            case "off":
+                args.add("--headless");
+                break;
+            case "log":
+                hudLog = File.createTempFile("playerbot-hud", ".log");
+                hudLog.deleteOnExit();
+                args.add("--headless");
+                args.add("--hud-log=" + hudLog);
+                break;
+            case "window":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown --hud: " + hud);
+        }
+        args.addAll(extra);
+
+        long[] latency = new long[turns];
+        long[] finished = new long[turns];
+        Probes probes = Probes.create();
+        try (Probes.Server server = probes.standInServer(enemies)) {
+            args.set(0, server.url());
+            Thread bot = new Thread(() -> probes.runBot(args.toArray(new String[0])), "PlayerBot " + hud);
+            bot.setDaemon(true);
+            bot.start();
+            server.accept(CONNECT_TIMEOUT_MILLIS);
+
+            int turn = 1;
+            for (int i = 0; i < warmup; i++, turn++)
+                if (server.turn(turn) < 0)
+                    throw new IOException("Bot disconnected during warm-up");
+            long start = System.nanoTime();
+            for (int i = 0; i < turns; i++, turn++) {
+                latency[i] = server.turn(turn);
+                if (latency[i] < 0)
+                    throw new IOException("Bot disconnected at turn " + turn);
+                finished[i] = System.nanoTime();
+            }
+            report(hud, turns, start, latency, finished);
+        }
+    }
+
+    private static void report(String hud, int turns, long start, long[] latency, long[] finished) {
+        double seconds = (finished[turns - 1] - start) / 1e9;
+        int window = Math.max(1, Math.min(1000, turns / 10));
+        double worst = Double.MAX_VALUE;
+        long from = start;
+        for (int i = window - 1; i < turns; i += window) {
+            worst = Math.min(worst, window / ((finished[i] - from) / 1e9));
+            from = finished[i];
+        }
+        long[] sorted = latency.clone();
+        Arrays.sort(sorted);
+        System.out.printf("hud=%-6s %8.0f turns/s  worst %d-turn window %8.0f turns/s%n", hud, turns / seconds,
+                window, worst);
+        System.out.printf("           latency us  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e3;
+    }
+}
@@ -0,0 +1,40 @@
+package playerbot.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * WaveTracker in a melee: a whole turn (one scan per enemy, then advance)
+ * and advance alone over the pool. With 50 enemies each firing every four
+ * turns over 200 waves are live.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WaveBenchmark {
+
+    @Param({ "10", "50" })
+    int enemies;
+
+    private Probes probes;
+
+    @Setup
+    public void setup() {
+        probes = Probes.create();
+        probes.waveSetup(enemies);
+    }
+
+    @Benchmark
+    public int turn() {
+        return probes.waveTurn();
+    }
+
+    @Benchmark
+    public int advance() {
+        return probes.waveAdvance();
+    }
+}
@@ -5,7 +5,7 @@ setlocal
 if not exist build mkdir build
 
 :: Step 2: Compile the Java files
-javac -d build -cp "lib/*" PlayerBot.java Launcher.java
+javac -encoding UTF-8 -d build -cp "lib/*" *.java
 if errorlevel 1 (
     echo Compilation failed.
     exit /b 1
@@ -34,5 +34,21 @@ jar cfm PlayerBotLauncher.jar build\manifest.txt -C build .
 :: Step 8: Clean up
 rmdir /s /q build
 
+:: Step 9: Record the class-data-sharing archive from a training run (JDK 13+)
+::         against an in-process stand-in server; without it the jar still runs
+if exist PlayerBotLauncher.jsa del PlayerBotLauncher.jsa
+java -Xlog:cds=off,cds+dynamic=off -XX:ArchiveClassesAtExit=PlayerBotLauncher.jsa -jar PlayerBotLauncher.jar --training-run
+if errorlevel 1 echo Training run failed; PlayerBotLauncher.cmd will start without the archive.
+
+:: Step 10: Launcher script that maps the archive when it is there
+> PlayerBotLauncher.cmd (
+    echo @echo off
+    echo if exist "%%~dp0PlayerBotLauncher.jsa" (
+    echo     java -XX:SharedArchiveFile="%%~dp0PlayerBotLauncher.jsa" -Xshare:auto -jar "%%~dp0PlayerBotLauncher.jar" %%*
+    echo ^) else (
+    echo     java -jar "%%~dp0PlayerBotLauncher.jar" %%*
+    echo ^)
+)
+
 endlocal
 echo Build complete!
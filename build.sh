@@ -0,0 +1,38 @@
+#!/bin/sh
+# Same steps as build.bat: PlayerBotLauncher.jar with the bot API inside,
+# its class-data-sharing archive and a launcher script that uses it.
+set -e
+
+# Step 1: Compile into a fresh build folder
+rm -rf build
+mkdir build
+javac -encoding UTF-8 -d build -cp "lib/*" *.java
+
+# Step 2: Copy JSON config and extract the bot API jar into it
+cp PlayerBot.json build/
+API_JAR=$(ls lib/robocode-tankroyale-bot-api-*.jar | head -n 1)
+(cd build && jar xf "../$API_JAR" && rm -rf META-INF)
+
+# Step 3: Package JAR
+printf 'Main-Class: Launcher\n' > build/manifest.txt
+jar cfm PlayerBotLauncher.jar build/manifest.txt -C build .
+rm -rf build
+
+# Step 4: Record the class-data-sharing archive from a training run (JDK 13+)
+# against an in-process stand-in server; without it the jar still runs
+rm -f PlayerBotLauncher.jsa
+java -Xlog:cds=off,cds+dynamic=off -XX:ArchiveClassesAtExit=PlayerBotLauncher.jsa -jar PlayerBotLauncher.jar --training-run ||
+    echo "Training run failed; PlayerBotLauncher.sh will start without the archive."
+
+# Step 5: Launcher script that maps the archive when it is there
+cat > PlayerBotLauncher.sh <<'LAUNCHER'
+#!/bin/sh
+DIR=$(cd "$(dirname "$0")" && pwd)
+if [ -f "$DIR/PlayerBotLauncher.jsa" ]; then
+    exec java -XX:SharedArchiveFile="$DIR/PlayerBotLauncher.jsa" -Xshare:auto -jar "$DIR/PlayerBotLauncher.jar" "$@"
+fi
+exec java -jar "$DIR/PlayerBotLauncher.jar" "$@"
+LAUNCHER
+chmod +x PlayerBotLauncher.sh
+
+echo "Build complete!"